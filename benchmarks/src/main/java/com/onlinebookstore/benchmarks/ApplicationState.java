@@ -0,0 +1,37 @@
+package com.onlinebookstore.benchmarks;
+
+import com.onlinebookstore.EOnlineBooksWorldStoreApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application once per fork against an in-memory H2 database (profile {@code bench}).
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(EOnlineBooksWorldStoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
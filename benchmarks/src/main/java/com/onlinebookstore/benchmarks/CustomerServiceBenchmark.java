@@ -0,0 +1,81 @@
+package com.onlinebookstore.benchmarks;
+
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.BulkUpsertResult;
+import com.onlinebookstore.repository.CustomerRepository;
+import com.onlinebookstore.service.CustomerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerServiceBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+
+    private CustomerService customerService;
+    private CustomerRepository customerRepository;
+    private List<Long> ids;
+
+    @Setup
+    public void setup(ApplicationState application) {
+        customerService = application.bean(CustomerService.class);
+        customerRepository = application.bean(CustomerRepository.class);
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(customer(null, i));
+        }
+        customerService.upsertCustomers(customers);
+        ids = customers.stream().map(Customer::getId).toList();
+    }
+
+    /** Hot id, served from the customer cache after the first call. */
+    @Benchmark
+    public Customer lookupHot() {
+        return customerService.getCustomerById(ids.get(0));
+    }
+
+    /** Random ids straight from the repository, i.e. the uncached database path. */
+    @Benchmark
+    public Optional<Customer> lookupDatabase() {
+        return customerRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Customer upsertExisting() {
+        Long id = randomId();
+        return customerService.addCustomerOrUpdateCustomer(customer(id, id.intValue()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public BulkUpsertResult bulkUpsert100() {
+        List<Customer> batch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            Long id = randomId();
+            batch.add(customer(id, id.intValue()));
+        }
+        return customerService.upsertCustomers(batch);
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static Customer customer(Long id, int n) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName("Customer " + n);
+        customer.setEmail("customer" + n + "@example.com");
+        return customer;
+    }
+}
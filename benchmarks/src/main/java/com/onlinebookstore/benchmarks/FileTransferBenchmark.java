@@ -0,0 +1,96 @@
+package com.onlinebookstore.benchmarks;
+
+import com.onlinebookstore.controller.FileController;
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.service.FileService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload and download through the service and controller for 1 KB to 100 MB payloads. Each
+ * measured iteration is a single operation and its upload is removed again afterwards (the blob
+ * itself is reclaimed by the storage sweeper).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileTransferBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    public int size;
+
+    private FileService fileService;
+    private FileController fileController;
+    private MockMultipartFile upload;
+    private Long storedId;
+    private Files uploaded;
+
+    @Setup(Level.Trial)
+    public void setup(ApplicationState application) throws Exception {
+        fileService = application.bean(FileService.class);
+        fileController = application.bean(FileController.class);
+        byte[] payload = new byte[size];
+        ThreadLocalRandom.current().nextBytes(payload);
+        upload = new MockMultipartFile("file", "payload-" + size + ".bin", "application/octet-stream", payload);
+        storedId = fileService.storeFile(upload).getId();
+    }
+
+    /** Changes the leading bytes each time so the upload is new content, not a deduplicated hit. */
+    @Setup(Level.Iteration)
+    public void makeUploadUnique() {
+        long stamp = System.nanoTime();
+        byte[] content = upload.getBytes();
+        for (int i = 0; i < Math.min(8, content.length); i++) {
+            content[i] = (byte) (stamp >>> (8 * i));
+        }
+    }
+
+    @Benchmark
+    public Files upload() throws Exception {
+        uploaded = fileService.storeFile(upload);
+        return uploaded;
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeUpload() {
+        if (uploaded != null) {
+            fileService.deleteFile(uploaded.getId());
+            uploaded = null;
+        }
+    }
+
+    @Benchmark
+    public long download() throws Exception {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/getfiles/" + storedId), new MockHttpServletResponse());
+        ResponseEntity<StreamingResponseBody> response = fileController.getFileById(storedId, null, null, request);
+        CountingOutputStream out = new CountingOutputStream();
+        response.getBody().writeTo(out);
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.onlinebookstore.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.entity.UserRegister;
+import com.onlinebookstore.model.ResponseMessage;
+import com.onlinebookstore.utility.Constants;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.net.HttpURLConnection;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round trips of the response types, using an ObjectMapper configured like Spring Boot's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Customer customer;
+    private UserRegister userRegister;
+    private ResponseMessage responseMessage;
+    private byte[] customerJson;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.now();
+
+        customer = new Customer();
+        customer.setId(42L);
+        customer.setName("Jane Reader");
+        customer.setEmail("jane.reader@example.com");
+        customer.setCreateDate(now);
+        customer.setUpdateDate(now);
+
+        userRegister = new UserRegister();
+        userRegister.setId(7L);
+        userRegister.setFirstName("Jane");
+        userRegister.setLastName("Reader");
+        userRegister.setEmail("jane.reader@example.com");
+        userRegister.setPassword("c2VjcmV0cGFzc3dvcmQ=");
+        userRegister.setContactId(12345L);
+        userRegister.setCreateDate(now);
+        userRegister.setUpdatedDate(now);
+
+        responseMessage = new ResponseMessage(HttpURLConnection.HTTP_CREATED, Constants.SUCCESS, "User Registered Successfully", userRegister);
+        customerJson = objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomer() throws Exception {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeUserRegister() throws Exception {
+        return objectMapper.writeValueAsBytes(userRegister);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseMessage() throws Exception {
+        return objectMapper.writeValueAsBytes(responseMessage);
+    }
+
+    @Benchmark
+    public Customer deserializeCustomer() throws Exception {
+        return objectMapper.readValue(customerJson, Customer.class);
+    }
+}
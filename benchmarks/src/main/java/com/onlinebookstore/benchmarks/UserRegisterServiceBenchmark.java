@@ -0,0 +1,54 @@
+package com.onlinebookstore.benchmarks;
+
+import com.onlinebookstore.entity.UserRegister;
+import com.onlinebookstore.model.LoginModel;
+import com.onlinebookstore.model.UserRegData;
+import com.onlinebookstore.service.UserRegisterService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserRegisterServiceBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    private UserRegisterService userRegisterService;
+    private LoginModel loginModel;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setup(ApplicationState application) {
+        userRegisterService = application.bean(UserRegisterService.class);
+        userRegisterService.createUserRegService(userRegData("login-user@example.com"));
+        loginModel = new LoginModel();
+        loginModel.setEmail("login-user@example.com");
+        loginModel.setPassword(PASSWORD);
+    }
+
+    @Benchmark
+    public UserRegister login() {
+        return userRegisterService.createLoginUser(loginModel).join();
+    }
+
+    @Benchmark
+    public UserRegister register() {
+        return userRegisterService.createUserRegService(userRegData("user-" + sequence.incrementAndGet() + "@example.com"));
+    }
+
+    private static UserRegData userRegData(String email) {
+        UserRegData data = new UserRegData();
+        data.setFirstName("Bench");
+        data.setLastName("User");
+        data.setEmail(email);
+        data.setPassword(PASSWORD);
+        data.setContactId(1L);
+        return data;
+    }
+}
@@ -0,0 +1,39 @@
+package com.onlinebookstore.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency (microseconds, 3 significant digits, up to a minute) and error count of one
+ * operation, recorded from every client thread.
+ */
+class EndpointStats {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long nanos, boolean ok) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_MICROS));
+        if (!ok) {
+            errors.increment();
+        }
+    }
+
+    void reset() {
+        latency.reset();
+        errors.reset();
+    }
+
+    Histogram latency() {
+        return latency;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,54 @@
+package com.onlinebookstore.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command-line options, {@code --name=value}. The mix is a comma separated list of
+ * {@code operation=weight}; operations left out keep their default weight, weight 0 disables one.
+ */
+public class HarnessOptions {
+
+    int customers = 10_000;
+    int users = 200;
+    int files = 100;
+    int fileSize = 64 * 1024;
+    int clients = 32;
+    Duration warmup = Duration.ofSeconds(15);
+    Duration duration = Duration.ofSeconds(60);
+    Map<String, Integer> mix = new LinkedHashMap<>();
+    String result = System.getProperty("loadtest.result", "target/loadtest-result.json");
+
+    static HarnessOptions parse(String[] args) {
+        HarnessOptions options = new HarnessOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "customers" -> options.customers = Integer.parseInt(value);
+                case "users" -> options.users = Integer.parseInt(value);
+                case "files" -> options.files = Integer.parseInt(value);
+                case "file-size" -> options.fileSize = Integer.parseInt(value);
+                case "clients" -> options.clients = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Duration.parse(value);
+                case "duration" -> options.duration = Duration.parse(value);
+                case "result" -> options.result = value;
+                case "mix" -> {
+                    for (String entry : value.split(",")) {
+                        String[] parts = entry.split("=");
+                        options.mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.users < 1 || options.customers < 1 || options.files < 1 || options.clients < 1) {
+            throw new IllegalArgumentException("customers, users, files and clients must be at least 1");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,208 @@
+package com.onlinebookstore.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.onlinebookstore.EOnlineBooksWorldStoreApplication;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application in this JVM against an in-memory H2 database (profile
+ * {@code loadtest}), seeds customers, users and files, and drives a weighted mix of requests
+ * over HTTP from {@code --clients} concurrent clients. Each client sends its next request as
+ * soon as the previous one completes (closed loop), so latencies under overload understate what
+ * an open-loop arrival stream would see.
+ * <p>
+ * After a warm-up that is discarded, it reports per operation: throughput, error rate, p50, p99,
+ * p999 and max latency, and the heap allocated on the server per request and per second (from
+ * {@code jvm.request.allocated}). The report is printed and written as JSON to
+ * {@code --result} (default {@code target/loadtest-result.json}) so runs can be diffed.
+ */
+public class LoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options = HarnessOptions.parse(args);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EOnlineBooksWorldStoreApplication.class)
+                .profiles("loadtest")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            Workload workload = new Workload("http://localhost:" + port, objectMapper, options.fileSize);
+            log("seeding %d customers, %d users, %d files of %d bytes", options.customers, options.users, options.files, options.fileSize);
+            workload.seed(context, options);
+
+            List<Workload.Operation> operations = new ArrayList<>();
+            for (Workload.Operation operation : workload.operations().values()) {
+                operation.weight = options.mix.getOrDefault(operation.name, operation.weight);
+                if (operation.weight > 0) {
+                    operations.add(operation);
+                }
+            }
+            for (String name : options.mix.keySet()) {
+                if (!workload.operations().containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown operation in --mix: " + name + ", known: " + workload.operations().keySet());
+                }
+            }
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            operations.forEach(operation -> stats.put(operation.name, new EndpointStats()));
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            MeterRegistry meters = context.getBean(MeterRegistry.class);
+
+            log("warming up for %s with %d clients", options.warmup, options.clients);
+            run(client, workload, operations, stats, options.clients, options.warmup);
+            stats.values().forEach(EndpointStats::reset);
+            Map<String, double[]> allocatedBefore = allocated(meters, operations);
+
+            log("measuring for %s", options.duration);
+            long start = System.nanoTime();
+            run(client, workload, operations, stats, options.clients, options.duration);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Map<String, double[]> allocatedAfter = allocated(meters, operations);
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Workload.Operation operation : operations) {
+                double[] before = allocatedBefore.get(operation.name);
+                double[] after = allocatedAfter.get(operation.name);
+                rows.add(row(operation, stats.get(operation.name), seconds, after[0] - before[0], (long) (after[1] - before[1])));
+            }
+            print(rows, options, seconds);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("timestamp", Instant.now().toString());
+            result.put("clients", options.clients);
+            result.put("durationSeconds", seconds);
+            result.put("customers", options.customers);
+            result.put("users", options.users);
+            result.put("files", options.files);
+            result.put("fileSize", options.fileSize);
+            result.put("endpoints", rows);
+            File file = new File(options.result);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+            log("result written to %s", file.getAbsolutePath());
+        }
+    }
+
+    private static void run(HttpClient client, Workload workload, List<Workload.Operation> operations,
+                            Map<String, EndpointStats> stats, int clients, Duration duration) throws InterruptedException {
+        int totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Workload.Operation operation = pick(operations, random.nextInt(totalWeight));
+                    HttpRequest request = operation.request.apply(random).timeout(Duration.ofSeconds(30)).build();
+                    long begin = System.nanoTime();
+                    boolean ok;
+                    try {
+                        if (operation.checkBody) {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            ok = response.statusCode() < 400 && workload.bodyReportsSuccess(response.body());
+                        } else {
+                            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    stats.get(operation.name).record(System.nanoTime() - begin, ok);
+                }
+            }, "loadtest-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static Workload.Operation pick(List<Workload.Operation> operations, int ticket) {
+        for (Workload.Operation operation : operations) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    /** Total bytes and request count of {@code jvm.request.allocated} per operation. */
+    private static Map<String, double[]> allocated(MeterRegistry meters, List<Workload.Operation> operations) {
+        Map<String, double[]> totals = new HashMap<>();
+        for (Workload.Operation operation : operations) {
+            DistributionSummary summary = meters.find("jvm.request.allocated").tag("uri", operation.uri).summary();
+            totals.put(operation.name, summary != null ? new double[]{summary.totalAmount(), summary.count()} : new double[]{0, 0});
+        }
+        return totals;
+    }
+
+    private static Map<String, Object> row(Workload.Operation operation, EndpointStats stats, double seconds,
+                                           double allocatedBytes, long allocationSamples) {
+        Histogram latency = stats.latency();
+        long requests = latency.getTotalCount();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("operation", operation.name);
+        row.put("uri", operation.uri);
+        row.put("requests", requests);
+        row.put("throughput", requests / seconds);
+        row.put("errors", stats.errors());
+        row.put("errorRate", requests > 0 ? (double) stats.errors() / requests : 0.0);
+        row.put("p50Millis", millis(latency.getValueAtPercentile(50)));
+        row.put("p99Millis", millis(latency.getValueAtPercentile(99)));
+        row.put("p999Millis", millis(latency.getValueAtPercentile(99.9)));
+        row.put("maxMillis", millis(latency.getMaxValue()));
+        row.put("allocatedBytesPerRequest", allocationSamples > 0 ? allocatedBytes / allocationSamples : null);
+        row.put("allocatedMegabytesPerSecond", allocationSamples > 0 ? allocatedBytes / seconds / (1024 * 1024) : null);
+        return row;
+    }
+
+    private static double millis(long micros) {
+        return micros / (double) TimeUnit.MILLISECONDS.toMicros(1);
+    }
+
+    private static void print(List<Map<String, Object>> rows, HarnessOptions options, double seconds) {
+        System.out.printf("%n%d clients, %.1f s%n", options.clients, seconds);
+        System.out.printf("%-18s %9s %9s %7s %9s %9s %9s %9s %12s %9s%n",
+                "operation", "requests", "req/s", "err%", "p50 ms", "p99 ms", "p999 ms", "max ms", "alloc B/req", "alloc MB/s");
+        for (Map<String, Object> row : rows) {
+            Object perRequest = row.get("allocatedBytesPerRequest");
+            Object perSecond = row.get("allocatedMegabytesPerSecond");
+            System.out.printf("%-18s %9d %9.1f %7.2f %9.2f %9.2f %9.2f %9.2f %12s %9s%n",
+                    row.get("operation"), row.get("requests"), row.get("throughput"), 100 * (double) row.get("errorRate"),
+                    row.get("p50Millis"), row.get("p99Millis"), row.get("p999Millis"), row.get("maxMillis"),
+                    perRequest != null ? String.format("%.0f", (double) perRequest) : "-",
+                    perSecond != null ? String.format("%.1f", (double) perSecond) : "-");
+        }
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf("[loadtest] " + format + "%n", args);
+    }
+}
@@ -0,0 +1,189 @@
+package com.onlinebookstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.UserRegData;
+import com.onlinebookstore.service.CustomerService;
+import com.onlinebookstore.service.FileService;
+import com.onlinebookstore.service.UserRegisterService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * The seeded data set and the operations clients pick from. Seeding goes through the service
+ * layer so it is quick and does not show up in the measured numbers; everything measured goes
+ * over HTTP.
+ */
+class Workload {
+
+    static final String PASSWORD = "loadtest-password";
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "David", "Erin", "Frank", "Grace", "Heidi", "Ivan", "Judy"};
+    private static final String[] LAST_NAMES = {"Reader", "Writer", "Binder", "Printer", "Author", "Editor", "Scribe", "Keeper"};
+
+    /**
+     * One kind of request. {@code uri} is the Spring MVC uri template the server tags its
+     * metrics with; {@code checkBody} marks endpoints that report failures inside a 200 body.
+     */
+    static class Operation {
+        final String name;
+        final String uri;
+        final boolean checkBody;
+        final Function<ThreadLocalRandom, HttpRequest.Builder> request;
+        int weight;
+
+        Operation(String name, String uri, int weight, boolean checkBody, Function<ThreadLocalRandom, HttpRequest.Builder> request) {
+            this.name = name;
+            this.uri = uri;
+            this.weight = weight;
+            this.checkBody = checkBody;
+            this.request = request;
+        }
+    }
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final byte[] filePayload;
+    private final AtomicLong registrations = new AtomicLong();
+    private long[] customerIds;
+    private long[] fileIds;
+    private int users;
+
+    Workload(String baseUrl, ObjectMapper objectMapper, int fileSize) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.filePayload = new byte[fileSize];
+        ThreadLocalRandom.current().nextBytes(filePayload);
+    }
+
+    void seed(ConfigurableApplicationContext context, HarnessOptions options) throws Exception {
+        List<Customer> customers = new ArrayList<>(options.customers);
+        for (int i = 0; i < options.customers; i++) {
+            Customer customer = new Customer();
+            customer.setName(FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[i % LAST_NAMES.length] + " " + i);
+            customer.setEmail("customer-" + i + "@loadtest.example");
+            customers.add(customer);
+        }
+        context.getBean(CustomerService.class).upsertCustomers(customers);
+        customerIds = customers.stream().mapToLong(Customer::getId).toArray();
+
+        UserRegisterService userRegisterService = context.getBean(UserRegisterService.class);
+        IntStream.range(0, options.users).parallel().forEach(i -> userRegisterService.createUserRegService(user("user-" + i + "@loadtest.example")));
+        users = options.users;
+
+        FileService fileService = context.getBean(FileService.class);
+        fileIds = new long[options.files];
+        for (int i = 0; i < options.files; i++) {
+            byte[] content = filePayload.clone();
+            content[0] = (byte) i;
+            content[1] = (byte) (i >>> 8);
+            fileIds[i] = fileService.storeFile(new MockMultipartFile("file", "seed-" + i + ".bin", "application/octet-stream", content)).getId();
+        }
+    }
+
+    /** All operations with their default weights, in report order. */
+    Map<String, Operation> operations() {
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        add(operations, new Operation("getCustomer", "/rest/customer/{id}", 30, false,
+                random -> get("/rest/customer/" + customerId(random))));
+        add(operations, new Operation("multiGetCustomers", "/rest/customers", 8, false,
+                random -> get("/rest/customers?ids=" + String.join(",", LongStream.range(0, 10)
+                        .mapToObj(i -> Long.toString(customerId(random))).toList()))));
+        add(operations, new Operation("searchCustomers", "/rest/customers/search", 8, false,
+                random -> get("/rest/customers/search?q=" + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)].substring(0, 3).toLowerCase()
+                        + "+" + LAST_NAMES[random.nextInt(LAST_NAMES.length)].substring(0, 2).toLowerCase())));
+        add(operations, new Operation("pageCustomers", "/rest/customers/page", 4, false,
+                random -> get("/rest/customers/page?size=50&afterId=" + customerId(random))));
+        add(operations, new Operation("updateCustomer", "/rest/createOrUpdateCustomer", 4, false,
+                random -> {
+                    long id = customerId(random);
+                    return json("/rest/createOrUpdateCustomer", Map.of("id", id, "name", "Updated " + id, "email", "customer-" + id + "@loadtest.example"));
+                }));
+        add(operations, new Operation("login", "/login", 10, true,
+                random -> json("/login", Map.of("email", "user-" + random.nextInt(users) + "@loadtest.example", "password", PASSWORD))));
+        add(operations, new Operation("register", "/userRegister", 2, true,
+                random -> json("/userRegister", user("new-" + registrations.incrementAndGet() + "-" + UUID.randomUUID() + "@loadtest.example"))));
+        add(operations, new Operation("upload", "/upload", 3, false, this::upload));
+        add(operations, new Operation("getFile", "/getfiles/{id}", 26, false,
+                random -> get("/getfiles/" + fileIds[random.nextInt(fileIds.length)])));
+        add(operations, new Operation("listFiles", "/files", 5, false,
+                random -> get("/files?size=20")));
+        return operations;
+    }
+
+    /** Failures reported with a 2xx status and a {@code ResponseMessage} body. */
+    boolean bodyReportsSuccess(byte[] body) {
+        try {
+            JsonNode statusCode = objectMapper.readTree(body).path("statusCode");
+            return statusCode.isMissingNode() || statusCode.asInt() < 400;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void add(Map<String, Operation> operations, Operation operation) {
+        operations.put(operation.name, operation);
+    }
+
+    private long customerId(ThreadLocalRandom random) {
+        return customerIds[random.nextInt(customerIds.length)];
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder json(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** New content every time, so the upload is stored rather than deduplicated. */
+    private HttpRequest.Builder upload(ThreadLocalRandom random) {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        byte[] content = filePayload.clone();
+        for (int i = 0; i < Math.min(16, content.length); i++) {
+            content[i] = (byte) random.nextInt();
+        }
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"upload.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] body = new byte[head.length + content.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+    }
+
+    private static UserRegData user(String email) {
+        UserRegData data = new UserRegData();
+        data.setFirstName("Load");
+        data.setLastName("Test");
+        data.setEmail(email);
+        data.setPassword(PASSWORD);
+        data.setContactId(1L);
+        return data;
+    }
+}
@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# Compares throughput and p99 of platform-thread vs virtual-thread request execution.
+#
+# Load profile: for DURATION, CONCURRENCY clients hammer GET /rest/customer/{id} and POST /login
+# (both blocking JDBC paths) against a running MySQL. Needs `hey` (https://github.com/rakyll/hey)
+# and the packaged application; the virtual mode needs a Java 21+ runtime.
+#
+#   mvn -Pjava21 package -DskipTests && scripts/execution-mode-comparison.sh
+set -euo pipefail
+
+JAR=${JAR:-$(ls target/E-OnlineBooksWorldStore-*-exec.jar | head -1)}
+PORT=${PORT:-7070}
+DURATION=${DURATION:-30s}
+CONCURRENCY=${CONCURRENCY:-500}
+BASE="http://localhost:${PORT}"
+
+java_feature=$(java -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')
+if (( ${java_feature%%.*} < 21 )); then
+  echo "virtual threads need Java 21+, java on the path is ${java_feature}; build with mvn -Pjava21 package on a JDK 21" >&2
+  exit 1
+fi
+
+wait_for_app() {
+  for _ in $(seq 1 120); do
+    if curl -sf "${BASE}/actuator/health" > /dev/null; then return 0; fi
+    sleep 1
+  done
+  echo "application did not start" >&2
+  return 1
+}
+
+run_load() {
+  local mode=$1 label=$2 out
+  out=$(hey -z "${DURATION}" -c "${CONCURRENCY}" "$3" "${@:4}")
+  local rps p99
+  rps=$(echo "${out}" | awk '/Requests\/sec/ {print $2}')
+  p99=$(echo "${out}" | awk '/ 99% in/ {print $3}')
+  printf '%-9s %-22s %12s %12s\n' "${mode}" "${label}" "${rps}" "${p99}"
+}
+
+printf '%-9s %-22s %12s %12s\n' "mode" "endpoint" "req/s" "p99 (s)"
+for mode in platform virtual; do
+  profile_args=()
+  if [[ "${mode}" == "virtual" ]]; then profile_args=(--spring.profiles.active=virtual); fi
+  java -jar "${JAR}" --server.port="${PORT}" --app.ratelimit.enabled=false "${profile_args[@]}" > "target/${mode}-run.log" 2>&1 &
+  app_pid=$!
+  trap 'kill ${app_pid} 2>/dev/null || true' EXIT
+  wait_for_app
+
+  curl -sf -X POST "${BASE}/userRegister" -H 'Content-Type: application/json' \
+    -d '{"firstName":"Load","lastName":"Test","email":"load@example.com","password":"load-password"}' > /dev/null
+  customer_id=$(curl -sf -X POST "${BASE}/rest/createOrUpdateCustomer" -H 'Content-Type: application/json' \
+    -d '{"name":"Load Test","email":"load@example.com"}' | sed -E 's/.*"id":([0-9]+).*/\1/')
+
+  run_load "${mode}" "GET /rest/customer/{id}" "${BASE}/rest/customer/${customer_id}"
+  run_load "${mode}" "POST /login" "${BASE}/login" -m POST -T application/json \
+    -d '{"email":"load@example.com","password":"load-password"}'
+
+  kill "${app_pid}"
+  wait "${app_pid}" 2>/dev/null || true
+  trap - EXIT
+done
@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Reports time-to-first-request for each startup mode: the time from launching the JVM until
+# GET /rest/customers/page?size=1 first answers 200, median of RUNS starts against a running
+# MySQL.
+#
+#   default          ddl-auto=update, no AOT, no CDS
+#   faststart        Flyway-managed schema, no schema diffing, no JDBC metadata at boot
+#   faststart-aot    + Spring AOT initializers (-Dspring.aot.enabled=true)
+#   faststart-cds    + the AppCDS archive from the training run
+#
+#   mvn -Paot package -DskipTests && scripts/startup-benchmark.sh
+set -euo pipefail
+
+EXTRACTED=${EXTRACTED:-target/extracted}
+JAR=${JAR:-$(cd "${EXTRACTED}" && ls E-OnlineBooksWorldStore-*-exec.jar | head -1)}
+PORT=${PORT:-7070}
+RUNS=${RUNS:-5}
+URL="http://localhost:${PORT}/rest/customers/page?size=1"
+
+now_ms() { date +%s%3N; }
+
+# prints the milliseconds to the first successful request
+start_once() {
+  local log=$1; shift
+  local start end app_pid
+  start=$(now_ms)
+  (cd "${EXTRACTED}" && exec java "$@" -jar "${JAR}" --server.port="${PORT}" --app.ratelimit.enabled=false) > "${log}" 2>&1 &
+  app_pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${app_pid}" 2> /dev/null; then
+      echo "application exited, see ${log}" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  end=$(now_ms)
+  kill "${app_pid}"
+  wait "${app_pid}" 2> /dev/null || true
+  echo $((end - start))
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'; }
+
+measure() {
+  local mode=$1; shift
+  local times=() reported
+  for run in $(seq 1 "${RUNS}"); do
+    times+=("$(start_once "target/startup-${mode}-${run}.log" "$@")")
+  done
+  # Spring's own "Started ... in N seconds" from the last run, for comparison
+  reported=$(grep -o 'in [0-9.]* seconds' "target/startup-${mode}-${RUNS}.log" | head -1 | awk '{print $2}')
+  printf '%-15s %18s %14s\n' "${mode}" "$(printf '%s\n' "${times[@]}" | median)" "${reported:-?}"
+}
+
+[[ -f "${EXTRACTED}/application.jsa" ]] || { echo "no CDS archive, build with: mvn -Paot package" >&2; exit 1; }
+printf '%-15s %18s %14s\n' "mode" "first request (ms)" "started (s)"
+measure default
+measure faststart -Dspring.profiles.active=faststart
+measure faststart-aot -Dspring.profiles.active=faststart -Dspring.aot.enabled=true
+measure faststart-cds -Dspring.profiles.active=faststart -Dspring.aot.enabled=true -XX:SharedArchiveFile=application.jsa
@@ -0,0 +1,35 @@
+package com.onlinebookstore;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are Caffeine (window TinyLFU eviction), configured through {@code spring.cache.*} in
+ * application.properties.
+ * <p>
+ * The cache manager is made transaction-aware: puts and evicts issued inside a transaction are
+ * applied after it commits. {@code @CacheEvict} next to {@code @Transactional} has no defined
+ * advice order, and an evict that ran before the commit let a concurrent read re-cache the old
+ * row for the whole TTL.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                }
+                return bean;
+            }
+        };
+    }
+}
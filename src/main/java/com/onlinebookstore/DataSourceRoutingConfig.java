@@ -0,0 +1,97 @@
+package com.onlinebookstore;
+
+import com.onlinebookstore.datasource.DataSourceRoutingProperties;
+import com.onlinebookstore.datasource.ReplicaRouter;
+import com.onlinebookstore.datasource.ReplicaRoutingDataSource;
+import com.onlinebookstore.web.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read/write splitting, active once {@code app.datasource.replicas[0].url} is set. Replaces the
+ * auto-configured pool with a single routing {@link DataSource}: writes and plain reads use the
+ * primary, {@code @Transactional(readOnly = true)} methods use a healthy replica. Without
+ * replicas the application runs on the auto-configured primary alone.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReplicaRouter replicaRouter(DataSourceProperties primaryProperties, DataSourceRoutingProperties routing,
+                                       Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = pool("primary", primaryProperties.determineUrl(), primaryProperties.determineUsername(),
+                primaryProperties.determinePassword(), primaryProperties.determineDriverClassName(), environment);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<DataSourceRoutingProperties.Replica> configured = routing.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = configured.get(i);
+            HikariDataSource dataSource = pool("replica-" + i, replica.getUrl(),
+                    replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername(),
+                    replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword(),
+                    replica.getDriverClassName(), environment);
+            // a replica that is down at startup only keeps reads on the primary
+            dataSource.setInitializationFailTimeout(-1);
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+
+        ReplicaRouter router = new ReplicaRouter(primary, replicas, routing.getReadYourWritesWindow(),
+                routing.getHealthCheckTimeoutSeconds());
+        meterRegistry.ifAvailable(meters -> router.getReplicaNames().forEach(name ->
+                Gauge.builder("datasource.replica.healthy", router, r -> r.isHealthy(name) ? 1 : 0)
+                        .tag("replica", name)
+                        .register(meters)));
+        router.start(routing.getHealthCheckIntervalMs());
+        return router;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaRouter));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRouter replicaRouter) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(replicaRouter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password,
+                                         String driverClassName, Environment environment) {
+        DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password);
+        if (driverClassName != null) {
+            builder.driverClassName(driverClassName);
+        }
+        HikariDataSource dataSource = builder.build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
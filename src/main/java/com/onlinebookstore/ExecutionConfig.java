@@ -0,0 +1,75 @@
+package com.onlinebookstore;
+
+import com.onlinebookstore.web.AdmissionControlInterceptor;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Request execution mode. {@code spring.threads.virtual.enabled=true} (profile {@code virtual})
+ * runs request handling on virtual threads. Spring Boot only honours it on Java 21+ (build with
+ * {@code -Pjava21}), so on older runtimes startup fails instead of quietly running the virtual
+ * profile's settings on platform threads. With virtual
+ * threads the container no longer bounds concurrency, so by default only that mode puts handlers
+ * behind {@link AdmissionControlInterceptor}, sized to the datasource pool
+ * ({@code app.admission.enabled} overrides). Handlers that stream request or response bodies
+ * without a connection are never gated.
+ */
+@Configuration
+public class ExecutionConfig implements WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    /** Streaming handlers that hold no connection while the body moves. */
+    private static final String[] UNGATED_PATHS = {"/getfiles/**", "/uploads/*/chunks/**"};
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${app.admission.enabled:${spring.threads.virtual.enabled:false}}")
+    private boolean admissionEnabled;
+    @Value("${app.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxConcurrent;
+    @Value("${app.admission.max-wait-ms:500}")
+    private long maxWaitMillis;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ExecutionConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void checkRuntime() {
+        int feature = Runtime.version().feature();
+        if (virtualThreads && feature < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true needs Java 21+, this runtime is Java " + feature);
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!admissionEnabled) {
+            return;
+        }
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(maxConcurrent, maxWaitMillis);
+        meterRegistry.ifAvailable(meters -> {
+            Gauge.builder("admission.permits.available", interceptor, AdmissionControlInterceptor::getAvailablePermits).register(meters);
+            Gauge.builder("admission.queue.length", interceptor, AdmissionControlInterceptor::getQueueLength).register(meters);
+        });
+        registry.addInterceptor(interceptor).excludePathPatterns(UNGATED_PATHS).order(0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportExecutionMode() {
+        log.info("Request execution mode: {} threads", virtualThreads ? "virtual" : "platform");
+    }
+}
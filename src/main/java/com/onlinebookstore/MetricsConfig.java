@@ -0,0 +1,53 @@
+package com.onlinebookstore;
+
+import com.onlinebookstore.metrics.InstrumentedDataSource;
+import com.onlinebookstore.metrics.PersistenceMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-endpoint persistence metrics. Latency histograms come from the actuator
+ * ({@code http.server.requests}); everything is exposed under {@code /actuator/metrics} and
+ * {@code /actuator/prometheus} and only aggregated when scraped.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.metrics.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(
+            @Value("${app.metrics.slow-query-threshold-ms:200}") long slowQueryThresholdMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, slowQueryThresholdMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        MeterRegistry registryBean = meterRegistry.getIfAvailable();
+        if (registryBean != null) {
+            registry.addInterceptor(new PersistenceMetricsInterceptor(registryBean));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.onlinebookstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.web.RateLimitFilter;
+import com.onlinebookstore.web.RateLimitProperties;
+import com.onlinebookstore.web.RateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-client rate limits for the user and file endpoints, see {@link RateLimitFilter}. The
+ * per-email login budget is a separate limiter because the email is only known once the
+ * controller has read the body. It is keyed on the email together with the client address:
+ * keyed on the email alone, anyone could lock a user out by failing logins in their name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry meters = meterRegistry.getIfAvailable();
+        RateLimitFilter filter = new RateLimitFilter(properties, objectMapper, meters);
+        if (meters != null) {
+            Gauge.builder("ratelimit.upload.bytes.in.flight", filter, RateLimitFilter::getUploadBytesInFlight).register(meters);
+        }
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public RateLimiter loginEmailRateLimiter(RateLimitProperties properties) {
+        RateLimitProperties.Budget budget = properties.getLoginPerEmail();
+        return new RateLimiter(budget.getCapacity(), budget.getRefillPerSecond(), properties.getMaxKeys());
+    }
+}
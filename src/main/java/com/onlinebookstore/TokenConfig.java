@@ -0,0 +1,31 @@
+package com.onlinebookstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.service.TokenService;
+import com.onlinebookstore.web.TokenAuthenticationFilter;
+import com.onlinebookstore.web.TokenProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Session token verification, see {@link TokenAuthenticationFilter}. Ordered after the rate
+ * limiter so floods of forged tokens are throttled before any HMAC is computed.
+ */
+@Configuration
+@EnableConfigurationProperties(TokenProperties.class)
+public class TokenConfig {
+
+    /** Endpoints that need a session token; a bad token is only rejected on these. */
+    private static final String[] PROTECTED_PATHS = {"/me", "/logout"};
+
+    @Bean
+    public FilterRegistrationBean<TokenAuthenticationFilter> tokenAuthenticationFilter(TokenService tokenService, ObjectMapper objectMapper) {
+        FilterRegistrationBean<TokenAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(new TokenAuthenticationFilter(tokenService, objectMapper, PROTECTED_PATHS));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
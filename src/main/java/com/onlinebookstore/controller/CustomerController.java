@@ -1,15 +1,36 @@
 package com.onlinebookstore.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.onlinebookstore.model.BulkUpsertResult;
+import com.onlinebookstore.model.CustomerPage;
+import com.onlinebookstore.model.CustomerSearchHit;
 import com.onlinebookstore.repository.CustomerRepository;
 import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.service.CustomerSearchService;
 import com.onlinebookstore.service.CustomerService;
+import com.onlinebookstore.utility.Constants;
+import com.onlinebookstore.utility.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/rest")
@@ -18,6 +39,15 @@ public class CustomerController {
     private CustomerService customerService;
     @Autowired
     private CustomerRepository customerRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CustomerSearchService customerSearchService;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 50;
 
     @PostMapping("/createOrUpdateCustomer")
     public ResponseEntity<Customer> createOrUpdateCustomer(@RequestBody Customer customer) {
@@ -26,28 +56,109 @@ public class CustomerController {
             return ResponseEntity.status(HttpStatus.CREATED).body(newCustomer);
         } else {
             Customer updatedCustomer = customerService.addCustomerOrUpdateCustomer(customer);
+            if (updatedCustomer == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            }
             return ResponseEntity.ok(updatedCustomer);
         }
     }
 
+    @PostMapping("/customers/bulk")
+    public ResponseEntity<BulkUpsertResult> bulkUpsertCustomers(@RequestBody List<Customer> customers) {
+        return ResponseEntity.ok(customerService.upsertCustomers(customers));
+    }
+
     @GetMapping("/customer/{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
+    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id, WebRequest request) {
         Customer customer = customerService.getCustomerById(id);
         if (customer != null) {
+            if (request.checkNotModified(ETags.weak(customer.getId(), customer.getUpdateDate()), ETags.epochMillis(customer.getUpdateDate()))) {
+                // 304 and validators were written by checkNotModified
+                return null;
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(customer);
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    /** Multi-get, {@code ?ids=1,2,3}; ids that do not exist are left out of the response. */
+    @GetMapping("/customers")
+    public ResponseEntity<List<Customer>> getCustomersByIds(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+        return ResponseEntity.ok(customerService.getCustomersByIds(ids));
+    }
+
     @GetMapping("/getAllCustomers")
     public List<Customer> getAllCustomers() {
         List<Customer> list= customerRepository.findAll();
         return list;
     }
 
+    @GetMapping("/customers/page")
+    public ResponseEntity<CustomerPage> getCustomersPage(@RequestParam(required = false) Long afterId,
+                                                         @RequestParam(defaultValue = "100") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(customerService.getCustomersAfter(afterId, pageSize));
+    }
+
+    /** Type-ahead search on name and email word prefixes, answered from the in-memory index. */
+    @GetMapping("/customers/search")
+    public ResponseEntity<List<CustomerSearchHit>> searchCustomers(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(customerSearchService.search(q, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS))));
+    }
+
+    /**
+     * Streams every customer as NDJSON (default) or as a single JSON array ({@code format=json}).
+     * Rows are written as they are read from the database cursor, so memory use does not depend
+     * on the size of the table.
+     */
+    @GetMapping("/customers/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean jsonArray = "json".equalsIgnoreCase(format);
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter sequence = jsonArray
+                    ? writer.writeValuesAsArray(out)
+                    : writer.withRootValueSeparator("\n").writeValues(out)) {
+                customerService.exportCustomers(customer -> {
+                    try {
+                        sequence.write(customer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @DeleteMapping("/deleteCustomer/{id}")
     public void deleteCustomer(@PathVariable Long id) {
-        customerRepository.deleteById(id);
+        customerService.deleteCustomer(id);
+    }
+
+    @GetMapping("/customers/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCustomerCacheStats() {
+        Cache cache = cacheManager.getCache(Constants.CUSTOMER_CACHE);
+        // the cache may be wrapped (transaction-aware), its native cache is the Caffeine one
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        CacheStats stats = caffeineCache.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", caffeineCache.estimatedSize());
+        body.put("hitCount", stats.hitCount());
+        body.put("missCount", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictionCount", stats.evictionCount());
+        return ResponseEntity.ok(body);
     }
 }
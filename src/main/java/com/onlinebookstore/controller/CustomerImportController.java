@@ -0,0 +1,56 @@
+package com.onlinebookstore.controller;
+
+import com.onlinebookstore.model.ImportJobStatus;
+import com.onlinebookstore.service.CustomerImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/rest")
+public class CustomerImportController {
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @PostMapping("/customers/import")
+    public ResponseEntity<ImportJobStatus> importCustomers(@RequestParam MultipartFile file,
+                                                           @RequestParam(required = false) String format) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(customerImportService.startImport(file, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    @GetMapping("/customers/import/{jobId}")
+    public ResponseEntity<ImportJobStatus> getImportStatus(@PathVariable String jobId) {
+        ImportJobStatus status = customerImportService.getStatus(jobId);
+        if (status != null) {
+            return ResponseEntity.ok(status);
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    @GetMapping("/customers/import/{jobId}/rejects")
+    public ResponseEntity<Resource> getImportRejects(@PathVariable String jobId) {
+        Path rejectFile = customerImportService.getRejectFile(jobId);
+        if (rejectFile == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + jobId + "-rejects.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new FileSystemResource(rejectFile));
+    }
+}
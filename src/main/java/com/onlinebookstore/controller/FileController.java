@@ -1,63 +1,208 @@
 package com.onlinebookstore.controller;
 
 import com.onlinebookstore.entity.Files;
-import com.onlinebookstore.repository.FileRepository;
+import com.onlinebookstore.model.FileSummary;
+import com.onlinebookstore.model.FileUploadResult;
+import com.onlinebookstore.service.BlobStorageService;
+import com.onlinebookstore.service.FileIngestService;
+import com.onlinebookstore.service.FileService;
+import com.onlinebookstore.utility.Constants;
+import com.onlinebookstore.utility.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 public class FileController {
     @Autowired
-    private FileRepository fileRepository;
+    private FileService fileService;
+    @Autowired
+    private FileIngestService fileIngestService;
+    @Autowired
+    private BlobStorageService blobStorageService;
 
     @PostMapping("/upload")
     public ResponseEntity<String> uploadFile(@RequestParam MultipartFile file) {
         try {
-            Files fis = new Files();
-            fis.setFileName(file.getOriginalFilename());
-            fis.setFileType(file.getContentType());
-            fis.setData(file.getBytes());
-            fileRepository.save(fis);
+            fileService.storeFile(file);
 //            return ResponseEntity.status(HttpStatus.OK).body("File uploaded successfully: " + file.getOriginalFilename());
             return ResponseEntity.ok("File inserted successfully: " + file.getOriginalFilename());
         } catch (Exception e) {
            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload file: " + e.getMessage());
         }
     }
-    
+
     @PostMapping("/uploadMultiple")
-    public ResponseEntity<List<Object>> uploadMultipleFiles(@RequestParam MultipartFile[] files) {
-        List<Object> response = Arrays.stream(files).map(file -> {
-            try {
-                return uploadFile(file);
-            } catch (Exception e) {
-                return "Failed to upload file.... "+e.getMessage();
-            }
-        }).collect(Collectors.toList());
-//        return ResponseEntity.status(HttpStatus.OK).body(message.toString());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<FileUploadResult>> uploadMultipleFiles(@RequestParam MultipartFile[] files) {
+        return ResponseEntity.ok(fileIngestService.ingest(files));
     }
 
-    @GetMapping("/getfiles/{id}")
-    public ResponseEntity<byte[]> getFileById(@PathVariable Long id) {
-        Files file = fileRepository.findById(id).orElse(null);
-        if (file != null) {
-//            return ResponseEntity.ok()
-//                    .header("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"")
-//                    .body(file.getData());
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION,"attachment; filename=\"" + file.getFileName() + "\"")
-                    .body(file.getData());
+    @GetMapping("/files")
+    public ResponseEntity<Page<FileSummary>> getFiles(@PageableDefault(size = 50, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(fileService.listFiles(pageable));
+    }
+
+    @DeleteMapping("/files/{id}")
+    public ResponseEntity<String> deleteFile(@PathVariable Long id) {
+        if (fileService.deleteFile(id)) {
+            return ResponseEntity.ok("File deleted successfully: " + id);
         } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found: " + id);
+        }
+    }
+
+    @GetMapping("/getfiles/{id}")
+    public ResponseEntity<StreamingResponseBody> getFileById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            WebRequest request) throws IOException {
+        // Files.data is lazy, so this reads metadata only; the blob is not touched for a 304.
+        Files file = fileService.getFileById(id);
+        if (file == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
+        boolean compressed = Constants.GZIP_ENCODING.equals(file.getEncoding());
+        boolean sendCompressed = compressed && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = file.getChecksum() != null
+                ? ETags.strong(sendCompressed ? file.getChecksum() + "-gzip" : file.getChecksum())
+                : ETags.weak(file.getId(), file.getUpdateDate());
+        if (request.checkNotModified(etag, ETags.epochMillis(file.getUpdateDate()))) {
+            return null;
+        }
+        if (ifRange != null && !ifRange.equals(etag)) {
+            // representation changed since the client's partial copy, send it whole
+            range = null;
+        }
+        if (file.getStorageKey() == null) {
+            // Legacy row, the body still lives in the longblob column.
+            byte[] data = file.getData() != null ? file.getData() : new byte[0];
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                    .contentType(mediaType(file))
+                    .contentLength(data.length)
+                    .body(out -> out.write(data));
+        }
+
+        Path path = blobStorageService.resolve(file.getStorageKey());
+        if (compressed) {
+            // Stored gzipped: hand the stored bytes to clients that accept gzip, inflate on the fly
+            // for the rest. Ranges are only served for blobs stored as-is.
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                    .header(HttpHeaders.ACCEPT_RANGES, "none")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(mediaType(file));
+            if (sendCompressed) {
+                long storedLength = java.nio.file.Files.size(path);
+                return builder.header(HttpHeaders.CONTENT_ENCODING, Constants.GZIP_ENCODING)
+                        .contentLength(storedLength)
+                        .body(out -> transfer(path, 0, storedLength, out));
+            }
+            if (file.getSize() != null) {
+                builder.contentLength(file.getSize());
+            }
+            return builder.body(out -> {
+                try (InputStream in = new GZIPInputStream(java.nio.file.Files.newInputStream(path), 64 * 1024)) {
+                    in.transferTo(out);
+                }
+            });
+        }
+
+        long length = java.nio.file.Files.size(path);
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Multiple ranges would need a multipart/byteranges body, a full 200 is a valid answer to those.
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    status = HttpStatus.PARTIAL_CONTENT;
+                    if (start > end) {
+                        // first byte at or past the end of the file
+                        throw new IllegalArgumentException("Unsatisfiable range " + range);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .body(null);
+            }
+        }
+
+        long position = start;
+        long count = end - start + 1;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(mediaType(file))
+                .contentLength(count);
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        return builder.body(out -> transfer(path, position, count, out));
+    }
+
+    /**
+     * Copies a region of the blob with {@link FileChannel#transferTo}, so the body never passes
+     * through a heap buffer sized to the file.
+     */
+    private static void transfer(Path path, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long written = 0;
+            while (written < count) {
+                long transferred = channel.transferTo(position + written, count - written, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip") || parts[0].trim().equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static MediaType mediaType(Files file) {
+        try {
+            return file.getFileType() != null ? MediaType.parseMediaType(file.getFileType()) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
     }
 }
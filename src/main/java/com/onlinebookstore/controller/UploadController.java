@@ -0,0 +1,74 @@
+package com.onlinebookstore.controller;
+
+import com.onlinebookstore.model.FileUploadResult;
+import com.onlinebookstore.model.UploadSessionRequest;
+import com.onlinebookstore.model.UploadSessionStatus;
+import com.onlinebookstore.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resumable uploads for large files: {@code POST /uploads} opens a session,
+ * {@code PUT /uploads/{id}/chunks/{index}} sends a chunk as the raw request body,
+ * {@code GET /uploads/{id}} lists what arrived and {@code POST /uploads/{id}/complete} creates
+ * the file.
+ */
+@RestController
+@RequestMapping("/uploads")
+public class UploadController {
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionStatus> createUpload(@RequestBody UploadSessionRequest request) throws IOException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.createSession(request));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionStatus> getUpload(@PathVariable String uploadId) {
+        return orNotFound(chunkedUploadService.getStatus(uploadId));
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<UploadSessionStatus> putChunk(@PathVariable String uploadId, @PathVariable int index,
+                                                        HttpServletRequest request) throws IOException {
+        try (InputStream body = request.getInputStream()) {
+            return orNotFound(chunkedUploadService.writeChunk(uploadId, index, request.getContentLengthLong(), body));
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<FileUploadResult> completeUpload(@PathVariable String uploadId,
+                                                           @RequestParam(required = false) String sha256) throws IOException {
+        return orNotFound(chunkedUploadService.complete(uploadId, sha256));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<String> abortUpload(@PathVariable String uploadId) {
+        if (chunkedUploadService.abort(uploadId)) {
+            return ResponseEntity.ok("Upload aborted: " + uploadId);
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload not found: " + uploadId);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> conflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    private static <T> ResponseEntity<T> orNotFound(T body) {
+        return body != null ? ResponseEntity.ok(body) : ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+    }
+}
@@ -4,50 +4,74 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.onlinebookstore.entity.UserRegister;
 import com.onlinebookstore.model.LoginModel;
 import com.onlinebookstore.model.ResponseMessage;
+import com.onlinebookstore.model.TokenClaims;
 import com.onlinebookstore.model.UserRegData;
+import com.onlinebookstore.service.TokenService;
 import com.onlinebookstore.service.UserRegisterService;
 import com.onlinebookstore.utility.Constants;
+import com.onlinebookstore.web.RateLimiter;
+import com.onlinebookstore.web.TokenAuthenticationFilter;
 import io.swagger.annotations.*;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.HttpURLConnection;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @Api(value = "User Registration and Login Operations", tags = {"User Operations"})
 public class UserRegistrationController {
     @Autowired
     private UserRegisterService userRegisterService;
+    @Autowired
+    private TokenService tokenService;
+    /** Absent when rate limiting is disabled. */
+    @Autowired(required = false)
+    private RateLimiter loginEmailRateLimiter;
 
+    /**
+     * Asynchronous like {@code /login}: the request thread is released while the password is
+     * hashed and the user saved. A full hashing pool answers 503 straight away.
+     */
     @ApiOperation(value = "User Registration", notes = "API for registering a new user", response = ResponseMessage.class)
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "User Registered Successfully", response = ResponseMessage.class),
             @ApiResponse(code = 400, message = "User Registration Failed", response = ResponseMessage.class),
+            @ApiResponse(code = 409, message = "Email already registered", response = ResponseMessage.class),
             @ApiResponse(code = 500, message = "Internal Server Error", response = ResponseMessage.class)
     })
     @PostMapping("/userRegister")
-    public ResponseEntity<ResponseMessage> createUserRegistration(@ApiParam(value = "User Registration Data", required = true) @RequestBody UserRegData userRegData) {
+    public CompletableFuture<ResponseEntity<ResponseMessage>> createUserRegistration(@ApiParam(value = "User Registration Data", required = true) @RequestBody UserRegData userRegData) {
         try {
             if (userRegData == null || userRegData.getEmail() == null || userRegData.getEmail().isBlank() ||
                     userRegData.getPassword() == null || userRegData.getPassword().isBlank()) {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "Email and Password cannot be empty"));
-            }
-            UserRegister userRegService = userRegisterService.createUserRegService(userRegData);
-            if (userRegService != null) {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_CREATED, Constants.SUCCESS, "User Registered Successfully", userRegService));
-            } else {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "User Registration not saved successfully", userRegService));
+                return CompletableFuture.completedFuture(ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "Email and Password cannot be empty")));
             }
+            return userRegisterService.createUserRegService(userRegData).handle(UserRegistrationController::registered);
         } catch (Exception e) {
-            return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_INTERNAL_ERROR, Constants.FAILURE, "User Registration Failed" + e.getMessage()));
+            return CompletableFuture.completedFuture(registered(null, e));
         }
     }
 
+    /**
+     * Asynchronous: the request thread is released while bcrypt runs on the hashing pool, and
+     * the response is written when the check completes. A full pool answers 503 straight away.
+     */
     @ApiOperation(value = "User Login", notes = "Authenticate a user and login", response = ResponseMessage.class)
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "User Logged In Successfully", response = ResponseMessage.class),
@@ -55,39 +79,104 @@ public class UserRegistrationController {
             @ApiResponse(code = 500, message = "Internal Server Error", response = ResponseMessage.class)
     })
     @PostMapping("/login")
-    public ResponseEntity<ResponseMessage> createlogin(@ApiParam(value = "Login Credentials", required = true) @RequestBody LoginModel loginModel) {
+    public CompletableFuture<ResponseEntity<ResponseMessage>> createlogin(@ApiParam(value = "Login Credentials", required = true) @RequestBody LoginModel loginModel,
+                                                                      HttpServletRequest request) {
         try {
             if (loginModel == null || loginModel.getEmail() == null || loginModel.getEmail().isBlank() ||
                     loginModel.getPassword() == null || loginModel.getPassword().isBlank()) {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "Email and Password cannot be empty"));
+                return CompletableFuture.completedFuture(ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "Email and Password cannot be empty")));
             }
-            UserRegister userLogin = userRegisterService.createLoginUser(loginModel);
-            if (userLogin != null) {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_CREATED, Constants.SUCCESS, "User Login Successfully, welcome to E-commerce online BooksStore", userLogin));
-            } else {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "Invalid Email and Password"));
+            if (loginEmailRateLimiter != null) {
+                long waitNanos = loginEmailRateLimiter.tryAcquire(loginModel.getEmail().trim().toLowerCase(Locale.ROOT) + "|" + request.getRemoteAddr());
+                if (waitNanos > 0) {
+                    return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, Long.toString(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1))
+                            .body(new ResponseMessage(HttpStatus.TOO_MANY_REQUESTS.value(), Constants.FAILED, "Too many login attempts, retry later")));
+                }
             }
+            return userRegisterService.createLoginUser(loginModel).handle((userLogin, e) -> {
+                if (e != null) {
+                    return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_INTERNAL_ERROR, Constants.FAILURE, "User Login Failed" + e.getMessage()));
+                }
+                if (userLogin != null) {
+                    return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_CREATED, Constants.SUCCESS, "User Login Successfully, welcome to E-commerce online BooksStore",
+                            tokenService.issue(userLogin)));
+                } else {
+                    return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "Invalid Email and Password"));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
         } catch (Exception e) {
-            return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_INTERNAL_ERROR, Constants.FAILURE, "User Login Failed" + e.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_INTERNAL_ERROR, Constants.FAILURE, "User Login Failed" + e.getMessage())));
+        }
+    }
+
+    /** Answered from the session token alone, without reading the user table. */
+    @GetMapping("/me")
+    public ResponseEntity<ResponseMessage> me(@RequestAttribute(name = TokenAuthenticationFilter.CLAIMS_ATTRIBUTE, required = false) TokenClaims claims) {
+        if (claims == null) {
+            return unauthorized();
         }
+        return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_OK, Constants.SUCCESS, "Authenticated", claims));
+    }
+
+    /** Revokes the presented token on this instance until it would have expired anyway. */
+    @PostMapping("/logout")
+    public ResponseEntity<ResponseMessage> logout(@RequestAttribute(name = TokenAuthenticationFilter.CLAIMS_ATTRIBUTE, required = false) TokenClaims claims) {
+        if (claims == null) {
+            return unauthorized();
+        }
+        tokenService.revoke(claims);
+        return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_OK, Constants.SUCCESS, "Logged out"));
+    }
+
+    /** Response for a finished registration: the saved user, or the failure it ended with. */
+    private static ResponseEntity<ResponseMessage> registered(UserRegister user, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return busy();
+        }
+        if (cause instanceof DataIntegrityViolationException) {
+            return emailTaken();
+        }
+        if (cause != null) {
+            return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_INTERNAL_ERROR, Constants.FAILURE, "User Registration Failed" + cause.getMessage()));
+        }
+        if (user != null) {
+            return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_CREATED, Constants.SUCCESS, "User Registered Successfully", user));
+        }
+        return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "User Registration not saved successfully", null));
+    }
+
+    private static ResponseEntity<ResponseMessage> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ResponseMessage(HttpStatus.SERVICE_UNAVAILABLE.value(), Constants.FAILED, "Server busy, retry later"));
+    }
+
+    private static ResponseEntity<ResponseMessage> emailTaken() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ResponseMessage(HttpStatus.CONFLICT.value(), Constants.FAILED, "Email already registered"));
+    }
+
+    private static ResponseEntity<ResponseMessage> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .body(new ResponseMessage(HttpStatus.UNAUTHORIZED.value(), Constants.FAILED, "Missing session token"));
     }
 
     @PostMapping("/userRegisterwithfile")
-    public ResponseEntity<ResponseMessage> createUserRegistrationWithFile(
+    public CompletableFuture<ResponseEntity<ResponseMessage>> createUserRegistrationWithFile(
             @ApiParam(value = "User Registration Data", required = true)
             @RequestParam String userRegDataJson,
             @RequestParam MultipartFile[] files) {
         try {
             UserRegData userRegData = new ObjectMapper().readValue(userRegDataJson, UserRegData.class);
 
-            UserRegister userRegService = userRegisterService.createUserRegServiceWithFiles(userRegData, files);
-            if (userRegService != null) {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_CREATED, Constants.SUCCESS, "User Registered Successfully", userRegService));
-            } else {
-                return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_BAD_REQUEST, Constants.FAILED, "User Registration not saved successfully", userRegService));
-            }
+            return userRegisterService.createUserRegServiceWithFiles(userRegData, files).handle(UserRegistrationController::registered);
         } catch (Exception e) {
-            return ResponseEntity.ok(new ResponseMessage(HttpURLConnection.HTTP_INTERNAL_ERROR, Constants.FAILURE, "User Registration Failed" + e.getMessage()));
+            return CompletableFuture.completedFuture(registered(null, e));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.onlinebookstore.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code app.datasource.*}: read replicas next to the primary in {@code spring.datasource.*}.
+ * Replica pools take their settings from {@code spring.datasource.hikari.*}; credentials fall
+ * back to the primary's.
+ */
+@Data
+@ConfigurationProperties("app.datasource")
+public class DataSourceRoutingProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+    private long healthCheckIntervalMs = 5000;
+    private int healthCheckTimeoutSeconds = 1;
+    /** How long a client's reads stay on the primary after it committed a write. */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
@@ -0,0 +1,152 @@
+package com.onlinebookstore.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the primary and replica pools and decides where a read may go: round-robin over the
+ * replicas that passed their last health check, or {@code null} when none did. Also remembers,
+ * per client, when it last committed a write.
+ * <p>
+ * Health checks run on their own thread because borrowing from a pool whose database is down
+ * blocks for the pool's connection timeout.
+ */
+public class ReplicaRouter implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Cache<String, Boolean> recentWriters;
+    private final int validationTimeoutSeconds;
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaRouter(DataSource primary, Map<String, DataSource> replicas, Duration readYourWritesWindow,
+                         int validationTimeoutSeconds) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(readYourWritesWindow).build();
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /** Primary and replicas keyed by name, for the routing datasource. */
+    public Map<Object, Object> getTargets() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        return targets;
+    }
+
+    public List<String> getReplicaNames() {
+        return replicas.stream().map(replica -> replica.name).toList();
+    }
+
+    /** The next healthy replica, or {@code null} if reads have to fall back to the primary. */
+    public String nextReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    public boolean isHealthy(String name) {
+        return replicas.stream().anyMatch(replica -> replica.name.equals(name) && replica.healthy);
+    }
+
+    public void recordWrite(String client) {
+        recentWriters.put(client, Boolean.TRUE);
+    }
+
+    public boolean wroteRecently(String client) {
+        return recentWriters.getIfPresent(client) != null;
+    }
+
+    /** Takes a replica out of rotation until the next successful health check. */
+    public void markUnhealthy(String name, Exception cause) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(name) && replica.healthy) {
+                replica.healthy = false;
+                log.warn("Replica {} taken out of rotation: {}", name, cause.getMessage());
+            }
+        }
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(validationTimeoutSeconds);
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is {}", replica.name, healthy ? "back in rotation" : "down, reads fall back to the primary");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public synchronized void start(long intervalMillis) {
+        if (healthChecker == null && !replicas.isEmpty()) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        // optimistic until the first check, so reads don't all start on the primary
+        volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.onlinebookstore.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends connections taken inside a {@code @Transactional(readOnly = true)} method to a replica
+ * and everything else to the primary. Reads also stay on the primary when no replica is
+ * healthy, when the replica refuses a connection, or when the current client committed a write
+ * within the read-your-writes window.
+ * <p>
+ * The transaction's read-only flag is only set after the transaction manager has asked for a
+ * connection, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers the
+ * lookup to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaRouter router;
+
+    public ReplicaRoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+        setTargetDataSources(router.getTargets());
+        setDefaultTargetDataSource(router.getPrimary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String client = RoutingContext.currentClient();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (client == null || !router.wroteRecently(client)) {
+                String replica = router.nextReplica();
+                if (replica != null) {
+                    return replica;
+                }
+            }
+        } else if (client != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    router.recordWrite(client);
+                }
+            });
+        }
+        return ReplicaRouter.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        DataSource target = getResolvedDataSources().get(key);
+        if (ReplicaRouter.PRIMARY.equals(key)) {
+            return target.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            router.markUnhealthy((String) key, e);
+            return router.getPrimary().getConnection();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.onlinebookstore.datasource;
+
+/**
+ * The client the current thread is working for, used to keep that client's reads on the
+ * primary for a short window after it wrote. Unset for background work.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> RECENT_WRITER = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static void bindClient(String client) {
+        bindClient(client, false);
+    }
+
+    /**
+     * @param recentWriter whether the client was inside its read-your-writes window when the
+     *                     request started, for code that reads on other threads on its behalf
+     */
+    public static void bindClient(String client, boolean recentWriter) {
+        CLIENT.set(client);
+        RECENT_WRITER.set(recentWriter);
+    }
+
+    public static String currentClient() {
+        return CLIENT.get();
+    }
+
+    public static boolean isRecentWriter() {
+        return Boolean.TRUE.equals(RECENT_WRITER.get());
+    }
+
+    public static void clear() {
+        CLIENT.remove();
+        RECENT_WRITER.remove();
+    }
+}
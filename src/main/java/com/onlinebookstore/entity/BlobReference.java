@@ -0,0 +1,38 @@
+package com.onlinebookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reference count for a content-addressed blob. One row per distinct SHA-256; rows that drop
+ * to zero references are reclaimed, together with the blob, by the storage sweeper.
+ */
+@Data
+@Entity
+@Table(name = "blob_reference")
+public class BlobReference {
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "refCount")
+    private int refCount;
+
+    @Column(name = "blobSize")
+    private Long size;
+
+    @Column(name = "contentEncoding")
+    private String encoding;
+
+    @CreationTimestamp
+    @Column(name = "createDate")
+    private LocalDateTime createDate;
+
+    @UpdateTimestamp
+    @Column(name = "updateDate")
+    private LocalDateTime updateDate;
+}
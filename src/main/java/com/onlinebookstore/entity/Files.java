@@ -1,8 +1,10 @@
 package com.onlinebookstore.entity;
 
-import ch.qos.logback.classic.spi.ConfiguratorRank;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,8 +14,16 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name="files")
 public class Files {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Pooled sequence rather than IDENTITY so Hibernate can batch inserts; on MySQL this is backed
+     * by the {@code files_seq} table, kept ahead of existing ids by
+     * {@link com.onlinebookstore.repository.FilesSequenceInitializer}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "files_seq")
+    @SequenceGenerator(name = "files_seq", sequenceName = "files_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "filename")
@@ -22,9 +32,30 @@ public class Files {
     @Column(name = "filetype")
     private String fileType;
 
+    /**
+     * Only populated for rows written before bodies moved to the blob store. Loaded lazily
+     * (requires the Hibernate bytecode enhancement configured in the pom).
+     */
+    @Basic(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JsonIgnore
     @Column(columnDefinition = "longblob")
     private byte[] data;
 
+    @Column(name = "storageKey")
+    private String storageKey;
+
+    @Column(name = "fileSize")
+    private Long size;
+
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    /** {@code gzip} when the stored blob is compressed, {@code size} is always the original length. */
+    @Column(name = "contentEncoding")
+    private String encoding;
+
     @CreationTimestamp
     @Column(name = "createDate")
     private LocalDateTime createDate;
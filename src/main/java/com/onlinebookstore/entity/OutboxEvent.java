@@ -0,0 +1,61 @@
+package com.onlinebookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Work recorded in the same transaction as the change that caused it and carried out later by
+ * the outbox workers. {@code availableAt} is when the event may next be claimed: the retry time
+ * while pending, the end of the claim's lease while processing.
+ */
+@Data
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_status_available", columnList = "status, availableAt"))
+public class OutboxEvent {
+
+    public enum Status {
+        PENDING, PROCESSING, DONE, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "eventType", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(name = "aggregateId")
+    private Long aggregateId;
+
+    @Column(name = "payload", columnDefinition = "text")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Column(name = "availableAt", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "lastError", length = 1000)
+    private String lastError;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "createDate")
+    private LocalDateTime createDate;
+
+    @UpdateTimestamp
+    @Column(name = "updateDate")
+    private LocalDateTime updateDate;
+}
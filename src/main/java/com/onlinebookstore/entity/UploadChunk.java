@@ -0,0 +1,32 @@
+package com.onlinebookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a chunk of an {@link UploadSession} is on disk (written and forced).
+ */
+@Data
+@Entity
+@Table(name = "upload_chunk", uniqueConstraints = @UniqueConstraint(name = "uk_upload_chunk", columnNames = {"sessionId", "chunkIndex"}))
+public class UploadChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sessionId", nullable = false, length = 36)
+    private String sessionId;
+
+    @Column(name = "chunkIndex", nullable = false)
+    private int chunkIndex;
+
+    @Column(name = "chunkSize", nullable = false)
+    private long chunkSize;
+
+    @CreationTimestamp
+    @Column(name = "createDate")
+    private LocalDateTime createDate;
+}
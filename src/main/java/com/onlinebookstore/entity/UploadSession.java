@@ -0,0 +1,63 @@
+package com.onlinebookstore.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable upload. Chunks are written straight into {@code tempPath} at
+ * {@code index * chunkSize}; completing the session turns that file into a blob and a
+ * {@link Files} row ({@code fileId}).
+ */
+@Data
+@Entity
+@Table(name = "upload_session")
+public class UploadSession {
+
+    public enum Status {
+        OPEN, COMPLETE
+    }
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "filename")
+    private String fileName;
+
+    @Column(name = "filetype")
+    private String fileType;
+
+    @Column(name = "totalSize", nullable = false)
+    private long totalSize;
+
+    @Column(name = "chunkSize", nullable = false)
+    private int chunkSize;
+
+    @Column(name = "chunkCount", nullable = false)
+    private int chunkCount;
+
+    @Column(name = "tempPath", length = 1024)
+    private String tempPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "fileId")
+    private Long fileId;
+
+    @Column(name = "expiresAt", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "createDate")
+    private LocalDateTime createDate;
+
+    @UpdateTimestamp
+    @Column(name = "updateDate")
+    private LocalDateTime updateDate;
+}
@@ -1,5 +1,6 @@
 package com.onlinebookstore.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -8,7 +9,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Data
-@Table(name="user_register")
+@Table(name="user_register", uniqueConstraints = @UniqueConstraint(name = "uk_user_register_email", columnNames = "email"))
 @Entity
 public class UserRegister {
     @Id
@@ -24,6 +25,7 @@ public class UserRegister {
     @Column(name="email")
     private String email;
 
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name="password")
     private String password;
 
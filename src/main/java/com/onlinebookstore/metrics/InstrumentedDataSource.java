@@ -0,0 +1,179 @@
+package com.onlinebookstore.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the connection pool so every statement, fetched row and byte/char column read is
+ * counted into the current {@link JdbcStats}, and statements slower than the configured
+ * threshold are logged with their SQL.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentedDataSource.class);
+
+    private final long slowQueryNanos;
+
+    public InstrumentedDataSource(DataSource targetDataSource, long slowQueryMillis) {
+        super(targetDataSource);
+        this.slowQueryNanos = slowQueryMillis * 1_000_000L;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(obtainTargetDataSource().getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(obtainTargetDataSource().getConnection(username, password)));
+    }
+
+    /** Lets the container still close the wrapped pool on shutdown. */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private abstract static class DelegatingHandler implements InvocationHandler {
+        final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private class ConnectionHandler extends DelegatingHandler {
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                StatementHandler handler = new StatementHandler(statement, sql);
+                if (statement instanceof CallableStatement) {
+                    return proxy(CallableStatement.class, handler);
+                }
+                if (statement instanceof PreparedStatement) {
+                    return proxy(PreparedStatement.class, handler);
+                }
+                return proxy(Statement.class, handler);
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler extends DelegatingHandler {
+        private final String sql;
+
+        StatementHandler(Statement target, String sql) {
+            super(target);
+            this.sql = sql;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            Object result;
+            if (name.startsWith("execute")) {
+                JdbcStats stats = JdbcStats.current();
+                if (stats != null) {
+                    stats.addStatement();
+                }
+                long start = System.nanoTime();
+                result = call(method, args);
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= slowQueryNanos) {
+                    String statementSql = sql != null ? sql : (args != null && args.length > 0 ? String.valueOf(args[0]) : "?");
+                    log.warn("Slow statement ({} ms): {}", elapsed / 1_000_000L, statementSql);
+                }
+            } else {
+                result = call(method, args);
+            }
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler extends DelegatingHandler {
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            JdbcStats stats = JdbcStats.current();
+            if (stats != null) {
+                switch (method.getName()) {
+                    case "next":
+                        if (Boolean.TRUE.equals(result)) {
+                            stats.addRow();
+                        }
+                        break;
+                    case "getBytes":
+                        if (result != null) {
+                            stats.addBytes(((byte[]) result).length);
+                        }
+                        break;
+                    case "getString":
+                    case "getNString":
+                        if (result != null) {
+                            stats.addChars(((String) result).length());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return result;
+        }
+    }
+}
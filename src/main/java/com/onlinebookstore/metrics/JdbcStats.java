@@ -0,0 +1,64 @@
+package com.onlinebookstore.metrics;
+
+/**
+ * JDBC work done on behalf of the current request. Bound to the request thread by
+ * {@link PersistenceMetricsInterceptor} and filled in by {@link InstrumentedDataSource}; work
+ * done outside a request (or on another thread) is not attributed.
+ */
+public final class JdbcStats {
+
+    private static final ThreadLocal<JdbcStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rows;
+    private long bytes;
+    private long chars;
+
+    public static JdbcStats begin() {
+        JdbcStats stats = new JdbcStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static JdbcStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void addStatement() {
+        statements++;
+    }
+
+    void addRow() {
+        rows++;
+    }
+
+    void addBytes(long count) {
+        bytes += count;
+    }
+
+    void addChars(long count) {
+        chars += count;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /** Length of the binary columns read. */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /** Length in chars, not encoded bytes, of the string columns read. */
+    public long getChars() {
+        return chars;
+    }
+}
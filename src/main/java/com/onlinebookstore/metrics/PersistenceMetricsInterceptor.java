@@ -0,0 +1,97 @@
+package com.onlinebookstore.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records per-endpoint JDBC statement count, rows fetched, binary bytes and string chars read
+ * as distribution summaries ({@code jdbc.request.*}, tagged with the uri template) with a
+ * percentile histogram, so percentiles can be aggregated across instances at query time. Meters
+ * are built once per uri and metric. Request latency itself is the actuator's
+ * {@code http.server.requests} timer.
+ * <p>
+ * Also records the heap bytes the request thread allocated between the interceptor and
+ * completion ({@code jvm.request.allocated}), on JVMs that measure per-thread allocation and
+ * not on virtual threads. For async handlers only the dispatch that writes the response is
+ * counted; work on other pools is not attributed.
+ */
+public class PersistenceMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ALLOCATED_ATTRIBUTE = PersistenceMetricsInterceptor.class.getName() + ".ALLOCATED";
+    private static final com.sun.management.ThreadMXBean THREADS = allocationTracking();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, DistributionSummary>> summaries = new ConcurrentHashMap<>();
+
+    public PersistenceMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        JdbcStats.begin();
+        long allocated = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+        if (allocated >= 0) {
+            request.setAttribute(ALLOCATED_ATTRIBUTE, allocated);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        JdbcStats.end();
+        request.removeAttribute(ALLOCATED_ATTRIBUTE);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        JdbcStats stats = JdbcStats.current();
+        JdbcStats.end();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        if (request.getAttribute(ALLOCATED_ATTRIBUTE) instanceof Long start) {
+            request.removeAttribute(ALLOCATED_ATTRIBUTE);
+            long allocated = THREADS.getCurrentThreadAllocatedBytes();
+            if (allocated >= start) {
+                record("jvm.request.allocated", "bytes", uri, allocated - start);
+            }
+        }
+        if (stats == null) {
+            return;
+        }
+        record("jdbc.request.statements", "statements", uri, stats.getStatements());
+        record("jdbc.request.rows", "rows", uri, stats.getRows());
+        record("jdbc.request.bytes", "bytes", uri, stats.getBytes());
+        record("jdbc.request.chars", "chars", uri, stats.getChars());
+    }
+
+    private void record(String name, String unit, String uri, long value) {
+        summaries.computeIfAbsent(uri, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, key -> DistributionSummary.builder(name)
+                        .baseUnit(unit)
+                        .tags(Tags.of("uri", uri))
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(value);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationTracking() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            if (!threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads;
+        }
+        return null;
+    }
+}
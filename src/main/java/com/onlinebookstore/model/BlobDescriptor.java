@@ -0,0 +1,16 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlobDescriptor {
+    private String storageKey;
+    private long size;
+    private String checksum;
+    /** {@code gzip} when the blob is compressed at rest, otherwise {@code null}. */
+    private String encoding;
+}
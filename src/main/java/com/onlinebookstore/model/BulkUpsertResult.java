@@ -0,0 +1,19 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUpsertResult {
+    private int inserted;
+    private int updated;
+    private List<Long> notFoundIds = new ArrayList<>();
+    /** Entries that failed Bean Validation; none of them was written. */
+    private List<InvalidEntry> invalid = new ArrayList<>();
+}
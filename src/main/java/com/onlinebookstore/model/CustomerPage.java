@@ -0,0 +1,20 @@
+package com.onlinebookstore.model;
+
+import com.onlinebookstore.entity.Customer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (id-cursor) scan. Pass {@code nextCursor} as {@code afterId} to fetch the
+ * following page; it is {@code null} once the table is exhausted.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerPage {
+    private List<Customer> items;
+    private Long nextCursor;
+}
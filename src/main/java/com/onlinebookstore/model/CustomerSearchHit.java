@@ -0,0 +1,15 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerSearchHit {
+    private Long id;
+    private String name;
+    private String email;
+    private int score;
+}
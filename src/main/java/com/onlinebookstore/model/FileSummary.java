@@ -0,0 +1,17 @@
+package com.onlinebookstore.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata-only view of {@link com.onlinebookstore.entity.Files}. Queries returning this
+ * projection select just these columns and never touch the blob.
+ */
+public interface FileSummary {
+    Long getId();
+    String getFileName();
+    String getFileType();
+    Long getSize();
+    String getChecksum();
+    LocalDateTime getCreateDate();
+    LocalDateTime getUpdateDate();
+}
@@ -0,0 +1,17 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FileUploadResult {
+    private String fileName;
+    private Long id;
+    private Long size;
+    private String checksum;
+    private String status;
+    private String message;
+}
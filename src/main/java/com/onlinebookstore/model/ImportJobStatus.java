@@ -0,0 +1,22 @@
+package com.onlinebookstore.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ImportJobStatus {
+    private String jobId;
+    private String format;
+    private String status;
+    private String message;
+    private long rowsRead;
+    private long accepted;
+    private long rejected;
+    private long bytesRead;
+    private long totalBytes;
+    private double rowsPerSecond;
+    private Long etaSeconds;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,16 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvalidEntry {
+    /** Position of the entry in the request body. */
+    private int index;
+    private List<String> errors;
+}
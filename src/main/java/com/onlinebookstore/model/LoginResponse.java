@@ -0,0 +1,18 @@
+package com.onlinebookstore.model;
+
+import com.onlinebookstore.entity.UserRegister;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginResponse {
+    private String token;
+    private String tokenType;
+    private Instant expiresAt;
+    private UserRegister user;
+}
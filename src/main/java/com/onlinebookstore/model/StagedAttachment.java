@@ -0,0 +1,17 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An uploaded file parked in the outbox staging directory until a worker stores it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StagedAttachment {
+    private String fileName;
+    private String contentType;
+    private String path;
+}
@@ -0,0 +1,20 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+/**
+ * Body written to a temp file and hashed, but not yet placed in the store or referenced.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StagedBlob {
+    private Path tempFile;
+    private String checksum;
+    private long size;
+    private String encoding;
+}
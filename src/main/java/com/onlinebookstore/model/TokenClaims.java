@@ -0,0 +1,18 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenClaims {
+    private String tokenId;
+    private Long userId;
+    private String email;
+    private Instant issuedAt;
+    private Instant expiresAt;
+}
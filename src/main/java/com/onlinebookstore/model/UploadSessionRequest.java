@@ -0,0 +1,16 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionRequest {
+    private String fileName;
+    private String contentType;
+    private Long size;
+    /** Optional, defaults to {@code app.upload.chunk-size}. */
+    private Integer chunkSize;
+}
@@ -0,0 +1,29 @@
+package com.onlinebookstore.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State of a chunked upload. Chunk {@code i} covers bytes {@code i * chunkSize} up to the next
+ * chunk (or the end of the file); {@code missingChunks} are the ones still to send.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionStatus {
+    private String uploadId;
+    private String fileName;
+    private long size;
+    private int chunkSize;
+    private int chunkCount;
+    private List<Integer> receivedChunks;
+    private List<Integer> missingChunks;
+    private long receivedBytes;
+    private String status;
+    private Long fileId;
+    private LocalDateTime expiresAt;
+}
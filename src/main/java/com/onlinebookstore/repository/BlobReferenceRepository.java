@@ -0,0 +1,37 @@
+package com.onlinebookstore.repository;
+
+import com.onlinebookstore.entity.BlobReference;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BlobReferenceRepository extends JpaRepository<BlobReference, String> {
+
+    /**
+     * Adds a reference, creating the row on first use. The upsert leaves the row locked until
+     * the surrounding transaction ends, which keeps the sweeper away while the blob is placed.
+     */
+    @Modifying
+    @Query(value = "insert into blob_reference (hash, ref_count, blob_size, content_encoding, create_date, update_date) "
+            + "values (:hash, 1, :size, :encoding, :now, :now) "
+            + "on duplicate key update ref_count = ref_count + 1, update_date = :now", nativeQuery = true)
+    public int retain(@Param("hash") String hash, @Param("size") Long size, @Param("encoding") String encoding,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update BlobReference b set b.refCount = b.refCount - 1, b.updateDate = :now where b.hash = :hash and b.refCount > 0")
+    public int release(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BlobReference b where b.hash = :hash")
+    public Optional<BlobReference> lockByHash(@Param("hash") String hash);
+
+    public List<BlobReference> findTop100ByRefCountLessThanEqualAndUpdateDateBefore(int refCount, LocalDateTime before);
+}
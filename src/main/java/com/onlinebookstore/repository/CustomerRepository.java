@@ -1,9 +1,37 @@
 package com.onlinebookstore.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.onlinebookstore.entity.Customer;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    public List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Modifying
+    @Query("update Customer c set c.name = :name, c.email = :email, c.updateDate = :updateDate where c.id = :id")
+    public int updateCustomer(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
+                              @Param("updateDate") LocalDateTime updateDate);
+
+    /**
+     * Cursor over the whole table. Must be consumed inside a transaction and closed; on MySQL the
+     * fetch size only takes effect with {@code useCursorFetch=true} on the JDBC url.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Customer c order by c.id")
+    public Stream<Customer> streamAllBy();
 }
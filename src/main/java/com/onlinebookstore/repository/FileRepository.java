@@ -1,7 +1,14 @@
 package com.onlinebookstore.repository;
 
 import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.model.FileSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface FileRepository extends JpaRepository<Files, Long> {
+    public Page<FileSummary> findAllProjectedBy(Pageable pageable);
+    public Optional<FileSummary> findSummaryById(Long id);
 }
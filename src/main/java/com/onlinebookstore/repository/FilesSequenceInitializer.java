@@ -0,0 +1,57 @@
+package com.onlinebookstore.repository;
+
+import com.onlinebookstore.entity.Files;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Moves the table-backed {@code files_seq} past the ids already in {@code files} at startup.
+ * Databases that predate the sequence get it created empty by {@code ddl-auto=update}, and
+ * without this the first uploads would collide with existing rows. Runs once the context has
+ * refreshed, so refresh itself (and the AppCDS training run, which exits there) never opens a
+ * connection; a no-op when the sequence is native or not there.
+ */
+@Component
+public class FilesSequenceInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FilesSequenceInitializer.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        if (!sequenceTableExists()) {
+            return;
+        }
+        // The pooled optimizer hands out the allocationSize ids below the stored value, so stay
+        // a full block clear of the highest id.
+        int updated = new JdbcTemplate(dataSource).update(
+                "update files_seq set next_val = greatest(next_val, (select coalesce(max(id), 0) + ? + 1 from files))",
+                Files.ID_ALLOCATION_SIZE);
+        log.debug("files_seq checked against existing ids ({} row)", updated);
+    }
+
+    private boolean sequenceTableExists() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String name : new String[]{"files_seq", "FILES_SEQ"}) {
+                try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.onlinebookstore.repository;
+
+import com.onlinebookstore.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Due events, oldest first, locked for the caller. Rows another poller has locked are
+     * skipped ({@code for update skip locked}) rather than waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    public List<OutboxEvent> findByStatusInAndAvailableAtLessThanEqualOrderByIdAsc(Collection<OutboxEvent.Status> statuses,
+                                                                                 LocalDateTime now, Limit limit);
+
+    public long countByStatus(OutboxEvent.Status status);
+}
@@ -0,0 +1,23 @@
+package com.onlinebookstore.repository;
+
+import com.onlinebookstore.entity.UploadChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+
+    @Query("select c.chunkIndex from UploadChunk c where c.sessionId = :sessionId order by c.chunkIndex")
+    public List<Integer> findChunkIndexes(@Param("sessionId") String sessionId);
+
+    public boolean existsBySessionIdAndChunkIndex(String sessionId, int chunkIndex);
+
+    public long countBySessionId(String sessionId);
+
+    @Modifying
+    @Query("delete from UploadChunk c where c.sessionId = :sessionId")
+    public int deleteBySessionId(@Param("sessionId") String sessionId);
+}
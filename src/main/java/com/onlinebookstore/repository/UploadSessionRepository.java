@@ -0,0 +1,21 @@
+package com.onlinebookstore.repository;
+
+import com.onlinebookstore.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UploadSession s where s.id = :id")
+    public Optional<UploadSession> lockById(@Param("id") String id);
+
+    public List<UploadSession> findTop100ByStatusAndExpiresAtBefore(UploadSession.Status status, LocalDateTime now);
+}
@@ -2,7 +2,16 @@ package com.onlinebookstore.repository;
 
 import com.onlinebookstore.entity.UserRegister;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<UserRegister, Long> {
     public UserRegister findByEmail(String email);
-}
\ No newline at end of file
+
+    /** Replaces the password only if it is still {@code oldPassword}, so a concurrent change wins. */
+    @Modifying
+    @Query("update UserRegister u set u.password = :newPassword where u.id = :id and u.password = :oldPassword")
+    public int replacePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                               @Param("newPassword") String newPassword);
+}
@@ -0,0 +1,29 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.model.BlobDescriptor;
+import com.onlinebookstore.model.StagedBlob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Storage for file bodies. Only metadata lives in the {@code files} table, the bytes are kept
+ * by the implementation and addressed through the returned storage key.
+ * <p>
+ * Storing is two-phase: {@link #stage} streams the body to a temp file outside any transaction,
+ * {@link #commit} then references it inside the transaction that writes the {@code files} row.
+ * Callers always {@link #discard} the staged blob afterwards. A body assembled in place (chunked
+ * uploads) is written to a {@link #newStagingFile} and staged with {@link #adopt}, which moves
+ * rather than copies it.
+ */
+public interface BlobStorageService {
+    public StagedBlob stage(InputStream inputStream, String contentType) throws IOException;
+    public Path newStagingFile() throws IOException;
+    public StagedBlob adopt(Path stagingFile) throws IOException;
+    public BlobDescriptor commit(StagedBlob stagedBlob) throws IOException;
+    public void discard(StagedBlob stagedBlob);
+    public void release(String storageKey) throws IOException;
+    public Path resolve(String storageKey) throws IOException;
+    public boolean exists(String storageKey);
+}
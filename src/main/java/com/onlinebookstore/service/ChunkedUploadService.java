@@ -0,0 +1,23 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.model.FileUploadResult;
+import com.onlinebookstore.model.UploadSessionRequest;
+import com.onlinebookstore.model.UploadSessionStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resumable uploads: open a session, send its chunks in any order (and in parallel), ask which
+ * arrived, then complete it into a {@code files} row. Methods taking an upload id return
+ * {@code null} (or {@code false}) for an unknown one; invalid input is an
+ * {@link IllegalArgumentException}, a request the session's state doesn't allow an
+ * {@link IllegalStateException}.
+ */
+public interface ChunkedUploadService {
+    public UploadSessionStatus createSession(UploadSessionRequest request) throws IOException;
+    public UploadSessionStatus getStatus(String uploadId);
+    public UploadSessionStatus writeChunk(String uploadId, int index, long length, InputStream body) throws IOException;
+    public FileUploadResult complete(String uploadId, String expectedSha256) throws IOException;
+    public boolean abort(String uploadId);
+}
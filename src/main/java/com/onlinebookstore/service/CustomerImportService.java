@@ -0,0 +1,13 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.model.ImportJobStatus;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface CustomerImportService {
+    public ImportJobStatus startImport(MultipartFile file, String format) throws IOException;
+    public ImportJobStatus getStatus(String jobId);
+    public Path getRejectFile(String jobId);
+}
@@ -0,0 +1,19 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.CustomerSearchHit;
+
+import java.util.List;
+
+public interface CustomerSearchService {
+    /** Customers whose name or email has a word starting with each word of the query, best first. */
+    public List<CustomerSearchHit> search(String query, int limit);
+
+    /** Adds or replaces the customer; inside a transaction this takes effect once it commits. */
+    public void index(Customer customer);
+
+    /** Drops the customer; inside a transaction this takes effect once it commits. */
+    public void remove(Long id);
+
+    public int size();
+}
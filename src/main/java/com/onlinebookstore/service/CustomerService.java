@@ -1,8 +1,19 @@
 package com.onlinebookstore.service;
 
 import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.BulkUpsertResult;
+import com.onlinebookstore.model.CustomerPage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerService {
     public Customer addCustomerOrUpdateCustomer(Customer customer);
+    public BulkUpsertResult upsertCustomers(List<Customer> customers);
     public Customer getCustomerById(Long id);
+    public List<Customer> getCustomersByIds(Collection<Long> ids);
+    public void deleteCustomer(Long id);
+    public CustomerPage getCustomersAfter(Long afterId, int size);
+    public void exportCustomers(Consumer<Customer> consumer);
 }
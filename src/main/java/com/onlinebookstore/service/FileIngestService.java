@@ -0,0 +1,10 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.model.FileUploadResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface FileIngestService {
+    public List<FileUploadResult> ingest(MultipartFile[] files);
+}
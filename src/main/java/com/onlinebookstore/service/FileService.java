@@ -0,0 +1,16 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.model.FileSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface FileService {
+    public Files storeFile(MultipartFile file) throws IOException;
+    public Files getFileById(Long id);
+    public Page<FileSummary> listFiles(Pageable pageable);
+    public boolean deleteFile(Long id);
+}
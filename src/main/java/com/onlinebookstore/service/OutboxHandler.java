@@ -0,0 +1,36 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.entity.OutboxEvent;
+
+/**
+ * Carries out one type of outbox event. Events are delivered at least once, so a handler must
+ * tolerate running again for an event it already handled.
+ */
+public interface OutboxHandler {
+
+    public String getEventType();
+
+    /**
+     * Does the slow part of the work (file I/O and the like) outside any transaction and returns
+     * the database part, which the outbox applies in the same transaction that marks the event
+     * done. A retried event therefore never applies its database changes twice.
+     */
+    public Prepared prepare(OutboxEvent event) throws Exception;
+
+    /** Called after the event has been marked done. */
+    public default void completed(OutboxEvent event) {
+    }
+
+    /** Called after the event has been parked as {@code FAILED}; it will not be retried. */
+    public default void failed(OutboxEvent event) {
+    }
+
+    public interface Prepared extends AutoCloseable {
+        public void apply();
+
+        /** Releases what {@link #prepare} set up, whether or not it was applied. */
+        @Override
+        public default void close() {
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.onlinebookstore.service;
+
+public interface OutboxService {
+    /** Records an event in the caller's transaction; it is handled once that transaction commits. */
+    public void enqueue(String eventType, Long aggregateId, Object payload);
+
+    public long countPending();
+}
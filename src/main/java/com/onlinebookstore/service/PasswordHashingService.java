@@ -0,0 +1,9 @@
+package com.onlinebookstore.service;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface PasswordHashingService {
+    public CompletableFuture<String> hash(String rawPassword);
+    public CompletableFuture<Boolean> matches(String rawPassword, String storedHash);
+    public boolean isLegacy(String storedPassword);
+}
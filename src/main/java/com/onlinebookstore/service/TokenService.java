@@ -0,0 +1,11 @@
+package com.onlinebookstore.service;
+
+import com.onlinebookstore.entity.UserRegister;
+import com.onlinebookstore.model.LoginResponse;
+import com.onlinebookstore.model.TokenClaims;
+
+public interface TokenService {
+    public LoginResponse issue(UserRegister user);
+    public TokenClaims verify(String token);
+    public void revoke(TokenClaims claims);
+}
@@ -5,8 +5,10 @@ import com.onlinebookstore.model.LoginModel;
 import com.onlinebookstore.model.UserRegData;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface UserRegisterService {
-    public UserRegister createUserRegService(UserRegData userRegData);
-    public UserRegister createLoginUser(LoginModel loginModel);
-    public UserRegister createUserRegServiceWithFiles(UserRegData userRegData, MultipartFile[] file);
+    public CompletableFuture<UserRegister> createUserRegService(UserRegData userRegData);
+    public CompletableFuture<UserRegister> createLoginUser(LoginModel loginModel);
+    public CompletableFuture<UserRegister> createUserRegServiceWithFiles(UserRegData userRegData, MultipartFile[] file);
 }
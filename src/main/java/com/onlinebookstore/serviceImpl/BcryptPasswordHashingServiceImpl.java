@@ -0,0 +1,101 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.service.PasswordHashingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * bcrypt at {@code app.password.bcrypt-strength}, computed on a pool of its own sized to the
+ * CPUs ({@code app.password.threads}) so request threads never burn CPU on hashing. At most
+ * {@code app.password.queue-capacity} hashes wait for a thread; beyond that {@link #hash} and
+ * {@link #matches} throw {@link RejectedExecutionException} at once rather than letting
+ * latency grow without bound.
+ * <p>
+ * Passwords stored before bcrypt are plain Base64; {@link #isLegacy} tells them apart by the
+ * {@code $2} prefix every bcrypt hash starts with.
+ */
+@Service
+public class BcryptPasswordHashingServiceImpl implements PasswordHashingService {
+
+    private static final String BCRYPT_PREFIX = "$2";
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${app.password.bcrypt-strength:10}")
+    private int strength;
+    @Value("${app.password.threads:0}")
+    private int threads;
+    @Value("${app.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.ifAvailable(meters -> {
+            Gauge.builder("password.hash.queue", executor, pool -> pool.getQueue().size()).register(meters);
+            Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meters);
+            rejected = Counter.builder("password.hash.rejected").register(meters);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> matches(String rawPassword, String storedHash) {
+        return submit(() -> encoder.matches(rawPassword, storedHash));
+    }
+
+    @Override
+    public boolean isLegacy(String storedPassword) {
+        return storedPassword != null && !storedPassword.startsWith(BCRYPT_PREFIX);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw e;
+        }
+    }
+}
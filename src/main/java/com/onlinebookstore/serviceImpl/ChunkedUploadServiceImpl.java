@@ -0,0 +1,338 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.entity.UploadChunk;
+import com.onlinebookstore.entity.UploadSession;
+import com.onlinebookstore.model.BlobDescriptor;
+import com.onlinebookstore.model.FileUploadResult;
+import com.onlinebookstore.model.StagedBlob;
+import com.onlinebookstore.model.UploadSessionRequest;
+import com.onlinebookstore.model.UploadSessionStatus;
+import com.onlinebookstore.repository.FileRepository;
+import com.onlinebookstore.repository.UploadChunkRepository;
+import com.onlinebookstore.repository.UploadSessionRepository;
+import com.onlinebookstore.service.BlobStorageService;
+import com.onlinebookstore.service.ChunkedUploadService;
+import com.onlinebookstore.utility.Constants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chunked uploads on top of the blob store. The session's file is preallocated in the store's
+ * staging directory and every chunk is copied from the request straight into its region with
+ * {@link FileChannel#transferFrom}, then forced to disk before it is recorded as received, so
+ * the received list survives a crash. Completing hashes the assembled file once and moves it
+ * into the store; nothing is concatenated or copied.
+ * <p>
+ * Session files live on the node that created the session, so all requests of one upload must
+ * reach that node. That also makes a per-session read/write lock in this JVM enough to keep
+ * the file still while it is hashed: chunk writes share the lock, so chunks still arrive in
+ * parallel, while complete and abort hold it exclusively, and every method re-checks the
+ * session under the lock. Sessions left open past {@code app.upload.session-ttl} are swept.
+ */
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadServiceImpl.class);
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+    @Autowired
+    private UploadChunkRepository uploadChunkRepository;
+    @Autowired
+    private FileRepository fileRepository;
+    @Autowired
+    private BlobStorageService blobStorageService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.upload.chunk-size:8388608}")
+    private int defaultChunkSize;
+    @Value("${app.upload.min-chunk-size:1048576}")
+    private int minChunkSize;
+    @Value("${app.upload.max-chunk-size:67108864}")
+    private int maxChunkSize;
+    @Value("${app.upload.max-size:10737418240}")
+    private long maxSize;
+    @Value("${app.upload.session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    private TransactionTemplate transactionTemplate;
+    /** Weak values: a lock is dropped once no request holds it, and recreated on the next one. */
+    private final LoadingCache<String, ReadWriteLock> sessionLocks = Caffeine.newBuilder()
+            .weakValues()
+            .build(uploadId -> new ReentrantReadWriteLock());
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public UploadSessionStatus createSession(UploadSessionRequest request) throws IOException {
+        if (request.getSize() == null || request.getSize() <= 0 || request.getSize() > maxSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxSize + " bytes");
+        }
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize;
+        if (chunkSize < minChunkSize || chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("chunkSize must be between " + minChunkSize + " and " + maxChunkSize + " bytes");
+        }
+        long chunkCount = (request.getSize() + chunkSize - 1) / chunkSize;
+
+        Path file = blobStorageService.newStagingFile();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(request.getSize());
+        }
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setFileName(request.getFileName());
+        session.setFileType(request.getContentType());
+        session.setTotalSize(request.getSize());
+        session.setChunkSize(chunkSize);
+        session.setChunkCount((int) chunkCount);
+        session.setTempPath(file.toString());
+        session.setStatus(UploadSession.Status.OPEN);
+        session.setExpiresAt(LocalDateTime.now().plus(sessionTtl));
+        try {
+            return toStatus(uploadSessionRepository.save(session), List.of());
+        } catch (RuntimeException e) {
+            java.nio.file.Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    @Override
+    public UploadSessionStatus getStatus(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .map(session -> toStatus(session, uploadChunkRepository.findChunkIndexes(uploadId)))
+                .orElse(null);
+    }
+
+    @Override
+    public UploadSessionStatus writeChunk(String uploadId, int index, long length, InputStream body) throws IOException {
+        Lock lock = sessionLocks.get(uploadId).readLock();
+        lock.lock();
+        try {
+            return writeChunkLocked(uploadId, index, length, body);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UploadSessionStatus writeChunkLocked(String uploadId, int index, long length, InputStream body) throws IOException {
+        UploadSession session = uploadSessionRepository.findById(uploadId).orElse(null);
+        if (session == null) {
+            return null;
+        }
+        checkOpen(session);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+        long offset = (long) index * session.getChunkSize();
+        long expected = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        if (length != expected) {
+            throw new IllegalArgumentException("Chunk " + index + " must be exactly " + expected + " bytes, got Content-Length " + length);
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(session.getTempPath()), StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(body)) {
+            long written = 0;
+            while (written < expected) {
+                long transferred = channel.transferFrom(source, offset + written, expected - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException("Chunk " + index + " ended after " + written + " of " + expected + " bytes");
+            }
+            channel.force(false);
+        }
+
+        UploadChunk chunk = new UploadChunk();
+        chunk.setSessionId(uploadId);
+        chunk.setChunkIndex(index);
+        chunk.setChunkSize(expected);
+        try {
+            if (!uploadChunkRepository.existsBySessionIdAndChunkIndex(uploadId, index)) {
+                uploadChunkRepository.save(chunk);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // the same chunk was sent twice at once, the other request recorded it
+        }
+        return toStatus(session, uploadChunkRepository.findChunkIndexes(uploadId));
+    }
+
+    @Override
+    public FileUploadResult complete(String uploadId, String expectedSha256) throws IOException {
+        Lock lock = sessionLocks.get(uploadId).writeLock();
+        lock.lock();
+        try {
+            return completeLocked(uploadId, expectedSha256);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** No chunk write is in flight and none can start, so the hash covers the bytes that are moved. */
+    private FileUploadResult completeLocked(String uploadId, String expectedSha256) throws IOException {
+        UploadSession session = uploadSessionRepository.findById(uploadId).orElse(null);
+        if (session == null) {
+            return null;
+        }
+        if (session.getStatus() == UploadSession.Status.COMPLETE) {
+            return completed(session, fileRepository.findById(session.getFileId()).map(Files::getChecksum).orElse(null));
+        }
+        checkOpen(session);
+        long received = uploadChunkRepository.countBySessionId(uploadId);
+        if (received < session.getChunkCount()) {
+            throw new IllegalStateException((session.getChunkCount() - received) + " of " + session.getChunkCount() + " chunks are missing");
+        }
+
+        StagedBlob staged = blobStorageService.adopt(Paths.get(session.getTempPath()));
+        try {
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(staged.getChecksum())) {
+                throw new IllegalArgumentException("SHA-256 mismatch: expected " + expectedSha256 + ", assembled " + staged.getChecksum());
+            }
+            UploadSession done = transactionTemplate.execute(status -> {
+                UploadSession locked = uploadSessionRepository.lockById(uploadId).orElseThrow();
+                if (locked.getStatus() == UploadSession.Status.COMPLETE) {
+                    return locked;
+                }
+                BlobDescriptor blob;
+                try {
+                    blob = blobStorageService.commit(staged);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                Files file = fileRepository.save(FileServiceImpl.newFile(locked.getFileName(), locked.getFileType(), blob));
+                locked.setStatus(UploadSession.Status.COMPLETE);
+                locked.setFileId(file.getId());
+                locked.setTempPath(null);
+                uploadChunkRepository.deleteBySessionId(uploadId);
+                return locked;
+            });
+            // no-op when the file was moved into the store; on failure the session keeps its file
+            // so complete can be retried, and abort or the sweeper removes it
+            blobStorageService.discard(staged);
+            return completed(done, staged.getChecksum());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public boolean abort(String uploadId) {
+        Lock lock = sessionLocks.get(uploadId).writeLock();
+        lock.lock();
+        try {
+            return abortLocked(uploadId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean abortLocked(String uploadId) {
+        UploadSession session = transactionTemplate.execute(status -> uploadSessionRepository.lockById(uploadId).map(locked -> {
+            uploadChunkRepository.deleteBySessionId(uploadId);
+            uploadSessionRepository.delete(locked);
+            return locked;
+        }).orElse(null));
+        if (session == null) {
+            return false;
+        }
+        deleteTempFile(session);
+        return true;
+    }
+
+    /** Drops sessions that were never completed; completed ones are kept until they expire too. */
+    @Scheduled(fixedDelayString = "${app.upload.sweep-interval-ms:600000}", initialDelayString = "${app.upload.sweep-interval-ms:600000}")
+    public void sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        for (UploadSession.Status status : UploadSession.Status.values()) {
+            for (UploadSession session : uploadSessionRepository.findTop100ByStatusAndExpiresAtBefore(status, now)) {
+                try {
+                    abort(session.getId());
+                } catch (RuntimeException e) {
+                    log.warn("Could not remove expired upload session {}", session.getId(), e);
+                }
+            }
+        }
+    }
+
+    private void checkOpen(UploadSession session) {
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new IllegalStateException("Upload " + session.getId() + " is already complete");
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalStateException("Upload " + session.getId() + " has expired");
+        }
+    }
+
+    private static void deleteTempFile(UploadSession session) {
+        if (session.getTempPath() != null) {
+            try {
+                java.nio.file.Files.deleteIfExists(Paths.get(session.getTempPath()));
+            } catch (IOException e) {
+                log.warn("Could not delete upload file {}", session.getTempPath(), e);
+            }
+        }
+    }
+
+    private static FileUploadResult completed(UploadSession session, String checksum) {
+        return new FileUploadResult(session.getFileName(), session.getFileId(), session.getTotalSize(), checksum,
+                Constants.SUCCESS, "File inserted successfully: " + session.getFileName());
+    }
+
+    private static UploadSessionStatus toStatus(UploadSession session, List<Integer> received) {
+        Set<Integer> have = new HashSet<>(received);
+        List<Integer> missing = new ArrayList<>();
+        long receivedBytes = 0;
+        for (int i = 0; i < session.getChunkCount(); i++) {
+            long size = Math.min(session.getChunkSize(), session.getTotalSize() - (long) i * session.getChunkSize());
+            if (have.contains(i)) {
+                receivedBytes += size;
+            } else if (session.getStatus() == UploadSession.Status.OPEN) {
+                missing.add(i);
+            }
+        }
+        if (session.getStatus() == UploadSession.Status.COMPLETE) {
+            receivedBytes = session.getTotalSize();
+        }
+        return new UploadSessionStatus(session.getId(), session.getFileName(), session.getTotalSize(), session.getChunkSize(),
+                session.getChunkCount(), received, missing, receivedBytes, session.getStatus().name(), session.getFileId(),
+                session.getExpiresAt());
+    }
+}
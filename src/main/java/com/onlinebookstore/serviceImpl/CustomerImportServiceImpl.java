@@ -0,0 +1,489 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.BulkUpsertResult;
+import com.onlinebookstore.model.ImportJobStatus;
+import com.onlinebookstore.service.CustomerImportService;
+import com.onlinebookstore.service.CustomerService;
+import com.onlinebookstore.utility.Constants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Imports partner customer files. The upload is moved to a work directory and read record by
+ * record on a background thread; valid rows are handed to {@link CustomerService#upsertCustomers}
+ * in batches and invalid ones are appended to a per-job reject file. Each batch is one
+ * transaction; when the database refuses it (a value too long for its column, say) the batch is
+ * retried row by row and only the refused rows are rejected.
+ * <p>
+ * CSV files may start with a header naming the {@code id}, {@code name} and {@code email}
+ * columns; without one the columns are taken as {@code name,email} (or {@code id,name,email}).
+ * Quoted cells may contain commas, doubled quotes and line breaks; a quoted cell still open
+ * after {@link #MAX_RECORD_LENGTH} characters fails the job.
+ * <p>
+ * Finished jobs and their reject files are kept for {@code app.import.retention} and then
+ * dropped; running jobs never expire.
+ */
+@Service
+public class CustomerImportServiceImpl implements CustomerImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportServiceImpl.class);
+
+    private static final String RUNNING = "Running";
+    private static final String COMPLETED = "Completed";
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.import.location:./data/imports}")
+    private String location;
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+    @Value("${app.import.parallelism:2}")
+    private int parallelism;
+    @Value("${app.import.retention:PT24H}")
+    private Duration retention;
+
+    private Path workDir;
+    /** Owned by this bean rather than declared as one: any Executor bean makes Boot drop applicationTaskExecutor. */
+    private ThreadPoolTaskExecutor executor;
+    private TransactionTemplate transactionTemplate;
+    private Cache<String, ImportJob> jobs;
+
+    @PostConstruct
+    public void init() throws IOException {
+        workDir = Paths.get(location).toAbsolutePath().normalize();
+        java.nio.file.Files.createDirectories(workDir);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("customer-import-");
+        executor.setDaemon(true);
+        executor.initialize();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jobs = Caffeine.newBuilder()
+                .expireAfter(new FinishedJobExpiry(retention))
+                .scheduler(Scheduler.systemScheduler())
+                .<String, ImportJob>removalListener((jobId, job, cause) -> {
+                    if (job != null) {
+                        deleteQuietly(job.rejectFile);
+                    }
+                })
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // running jobs are interrupted and end up Failed; their committed batches stay
+        executor.shutdown();
+    }
+
+    @Override
+    public ImportJobStatus startImport(MultipartFile file, String format) throws IOException {
+        String normalized = format != null ? format.toLowerCase(Locale.ROOT) : guessFormat(file.getOriginalFilename());
+        if (!FORMAT_CSV.equals(normalized) && !FORMAT_NDJSON.equals(normalized)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+        String jobId = UUID.randomUUID().toString();
+        Path input = workDir.resolve(jobId + ".input");
+        file.transferTo(input);
+
+        ImportJob job = new ImportJob(jobId, normalized, input, workDir.resolve(jobId + ".rejects.csv"),
+                java.nio.file.Files.size(input));
+        jobs.put(jobId, job);
+        executor.execute(() -> run(job));
+        return job.snapshot();
+    }
+
+    @Override
+    public ImportJobStatus getStatus(String jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        return job != null ? job.snapshot() : null;
+    }
+
+    @Override
+    public Path getRejectFile(String jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        return job != null && java.nio.file.Files.exists(job.rejectFile) ? job.rejectFile : null;
+    }
+
+    private void run(ImportJob job) {
+        try (CountingInputStream counting = new CountingInputStream(java.nio.file.Files.newInputStream(job.input), job.bytesRead);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8));
+             BufferedWriter rejects = java.nio.file.Files.newBufferedWriter(job.rejectFile, StandardCharsets.UTF_8)) {
+            RecordReader records = new RecordReader(reader, FORMAT_CSV.equals(job.format));
+            List<Customer> batch = new ArrayList<>(batchSize);
+            List<Long> batchLines = new ArrayList<>(batchSize);
+            List<String> batchRows = new ArrayList<>(batchSize);
+            int[] columns = null;
+            String line;
+            while ((line = records.next()) != null) {
+                long lineNumber = records.recordLine;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (FORMAT_CSV.equals(job.format) && lineNumber == 1) {
+                    columns = headerColumns(line);
+                    if (columns != null) {
+                        continue;
+                    }
+                }
+                job.rowsRead.incrementAndGet();
+                Customer customer;
+                try {
+                    customer = FORMAT_CSV.equals(job.format) ? parseCsv(line, columns) : objectMapper.readValue(line, Customer.class);
+                } catch (Exception e) {
+                    reject(job, rejects, lineNumber, "Unparseable row: " + e.getMessage(), line);
+                    continue;
+                }
+                Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
+                if (!violations.isEmpty()) {
+                    String reason = violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+                    reject(job, rejects, lineNumber, reason, line);
+                    continue;
+                }
+                batch.add(customer);
+                batchLines.add(lineNumber);
+                batchRows.add(line);
+                if (batch.size() >= batchSize) {
+                    flush(job, rejects, batch, batchLines, batchRows);
+                }
+            }
+            flush(job, rejects, batch, batchLines, batchRows);
+            job.status = COMPLETED;
+        } catch (Exception e) {
+            log.warn("Customer import {} failed", job.jobId, e);
+            job.status = Constants.FAILED;
+            job.message = e.getMessage();
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            deleteQuietly(job.input);
+            // re-put so the retention period starts now
+            jobs.put(job.jobId, job);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            java.nio.file.Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", file, e);
+        }
+    }
+
+    private void flush(ImportJob job, BufferedWriter rejects, List<Customer> batch, List<Long> batchLines,
+                       List<String> batchRows) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            // one transaction around the whole batch, so a refused row rolls back every chunk of it
+            accept(job, rejects, batch, batchLines, transactionTemplate.execute(status -> customerService.upsertCustomers(batch)));
+        } catch (DataAccessException e) {
+            log.debug("Customer import {} batch at line {} refused, retrying row by row", job.jobId, batchLines.get(0), e);
+            for (int i = 0; i < batch.size(); i++) {
+                List<Customer> row = List.of(batch.get(i));
+                try {
+                    accept(job, rejects, row, batchLines.subList(i, i + 1), customerService.upsertCustomers(row));
+                } catch (DataAccessException rowError) {
+                    reject(job, rejects, batchLines.get(i), "Refused by the database: " + rowError.getMostSpecificCause().getMessage(), batchRows.get(i));
+                }
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+        batchRows.clear();
+    }
+
+    private void accept(ImportJob job, BufferedWriter rejects, List<Customer> customers, List<Long> lines,
+                        BulkUpsertResult result) throws IOException {
+        job.accepted.addAndGet(result.getInserted() + result.getUpdated());
+        if (!result.getNotFoundIds().isEmpty()) {
+            Set<Long> notFound = Set.copyOf(result.getNotFoundIds());
+            for (int i = 0; i < customers.size(); i++) {
+                Customer customer = customers.get(i);
+                if (customer.getId() != null && notFound.contains(customer.getId())) {
+                    reject(job, rejects, lines.get(i), "Customer id not found", String.valueOf(customer.getId()));
+                }
+            }
+        }
+    }
+
+    private void reject(ImportJob job, BufferedWriter rejects, long lineNumber, String reason, String row) throws IOException {
+        job.rejected.incrementAndGet();
+        rejects.write(lineNumber + "," + quote(reason) + "," + quote(row));
+        rejects.newLine();
+    }
+
+    /** Returns the column positions of id, name and email if the line is a header, otherwise null. */
+    private static int[] headerColumns(String line) {
+        List<String> cells = splitCsv(line);
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < cells.size(); i++) {
+            switch (cells.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "id" -> columns[0] = i;
+                case "name" -> columns[1] = i;
+                case "email" -> columns[2] = i;
+                default -> { }
+            }
+        }
+        return columns[1] >= 0 || columns[2] >= 0 ? columns : null;
+    }
+
+    private static Customer parseCsv(String line, int[] columns) {
+        List<String> cells = splitCsv(line);
+        if (columns == null) {
+            columns = cells.size() >= 3 ? new int[]{0, 1, 2} : new int[]{-1, 0, 1};
+        }
+        Customer customer = new Customer();
+        String id = cell(cells, columns[0]);
+        if (id != null && !id.isBlank()) {
+            customer.setId(Long.valueOf(id.trim()));
+        }
+        customer.setName(cell(cells, columns[1]));
+        customer.setEmail(cell(cells, columns[2]));
+        return customer;
+    }
+
+    private static String cell(List<String> cells, int index) {
+        return index >= 0 && index < cells.size() ? cells.get(index).trim() : null;
+    }
+
+    /** RFC 4180 style split: commas inside double quotes are kept, doubled quotes are unescaped. */
+    private static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private static String quote(String value) {
+        return "\"" + (value == null ? "" : value.replace("\"", "\"\"")) + "\"";
+    }
+
+    private static String guessFormat(String fileName) {
+        if (fileName != null && (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl"))) {
+            return FORMAT_NDJSON;
+        }
+        return FORMAT_CSV;
+    }
+
+    /** One record per call: a line, or for CSV as many lines as a quoted cell spans. */
+    private static final class RecordReader {
+        private final BufferedReader reader;
+        private final boolean csv;
+        private long lineNumber;
+        /** Line the last record started on. */
+        private long recordLine;
+
+        private RecordReader(BufferedReader reader, boolean csv) {
+            this.reader = reader;
+            this.csv = csv;
+        }
+
+        private String next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            recordLine = ++lineNumber;
+            int quotes = csv ? quotes(line) : 0;
+            if (quotes % 2 == 0) {
+                return line;
+            }
+            // doubled quotes inside a cell count twice, so an odd count means a cell is still open
+            StringBuilder record = new StringBuilder(line);
+            while (quotes % 2 != 0) {
+                String more = reader.readLine();
+                if (more == null) {
+                    break;
+                }
+                lineNumber++;
+                record.append('\n').append(more);
+                quotes += quotes(more);
+                if (record.length() > MAX_RECORD_LENGTH) {
+                    throw new IOException("Quoted cell starting on line " + recordLine + " is not closed within " + MAX_RECORD_LENGTH + " characters");
+                }
+            }
+            return record.toString();
+        }
+
+        private static int quotes(String line) {
+            int count = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /** Running jobs never expire; finished ones expire {@code retention} after they finished. */
+    private static final class FinishedJobExpiry implements Expiry<String, ImportJob> {
+        private final long retentionNanos;
+
+        private FinishedJobExpiry(Duration retention) {
+            this.retentionNanos = retention.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String jobId, ImportJob job, long currentTime) {
+            return job.finishedAt == null ? Long.MAX_VALUE : retentionNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String jobId, ImportJob job, long currentTime, long currentDuration) {
+            return expireAfterCreate(jobId, job, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String jobId, ImportJob job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static final class ImportJob {
+        private final String jobId;
+        private final String format;
+        private final Path input;
+        private final Path rejectFile;
+        private final long totalBytes;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private volatile String status = RUNNING;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String jobId, String format, Path input, Path rejectFile, long totalBytes) {
+            this.jobId = jobId;
+            this.format = format;
+            this.input = input;
+            this.rejectFile = rejectFile;
+            this.totalBytes = totalBytes;
+        }
+
+        private ImportJobStatus snapshot() {
+            ImportJobStatus snapshot = new ImportJobStatus();
+            snapshot.setJobId(jobId);
+            snapshot.setFormat(format);
+            snapshot.setStatus(status);
+            snapshot.setMessage(message);
+            snapshot.setRowsRead(rowsRead.get());
+            snapshot.setAccepted(accepted.get());
+            snapshot.setRejected(rejected.get());
+            snapshot.setBytesRead(bytesRead.get());
+            snapshot.setTotalBytes(totalBytes);
+            snapshot.setStartedAt(startedAt);
+            snapshot.setFinishedAt(finishedAt);
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            if (elapsedSeconds > 0) {
+                snapshot.setRowsPerSecond(rowsRead.get() / elapsedSeconds);
+                double bytesPerSecond = bytesRead.get() / elapsedSeconds;
+                if (RUNNING.equals(status) && bytesPerSecond > 0) {
+                    snapshot.setEtaSeconds((long) Math.ceil((totalBytes - bytesRead.get()) / bytesPerSecond));
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    /** Counts consumed bytes so progress and ETA can be derived from the file size. */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.CustomerSearchHit;
+import com.onlinebookstore.service.CustomerSearchService;
+import com.onlinebookstore.service.CustomerService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory inverted index over customer name and email, for type-ahead search. Both are split
+ * into lower-case words on anything that is not a letter or digit ({@code john.doe@acme.io}
+ * gives {@code john}, {@code doe}, {@code acme}; the top-level domain is left out since
+ * nearly every customer shares one). Words map to customer ids in a sorted map, so a prefix is
+ * one range scan.
+ * <p>
+ * A query matches customers that have, for every query word, some word starting with it. The
+ * range of the longest query word is scanned for at most {@code app.search.max-candidates}
+ * ids; those are filtered on the remaining words and ranked: exact word beats prefix, name
+ * beats email, and matching the first word of the name counts extra.
+ * <p>
+ * Memory: each customer costs its entry (id, name, email and the word array, about 200 bytes
+ * plus the characters) and about 45 bytes per distinct word in the postings, roughly 400 bytes
+ * in total for a typical two-word name and a one-word address, or about 400 MB per million
+ * customers. {@code search.index.customers} and {@code search.index.words} report the size.
+ * <p>
+ * Writes are serialized on the index, reads take no locks. Each instance keeps its own index:
+ * it is built from the table at startup and sees only the changes made through this instance.
+ */
+@Service
+public class CustomerSearchServiceImpl implements CustomerSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSearchServiceImpl.class);
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    /** Ids changed while the startup load is running; the load must not overwrite them. */
+    private final Set<Long> touchedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    @Autowired
+    @Lazy
+    private CustomerService customerService;
+
+    @Value("${app.search.max-candidates:2000}")
+    private int maxCandidates;
+
+    public CustomerSearchServiceImpl(ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(meters -> {
+            Gauge.builder("search.index.customers", entries, Map::size).register(meters);
+            Gauge.builder("search.index.words", postings, Map::size).register(meters);
+        });
+    }
+
+    /** Streams the table into the index off the startup thread; searches see partial results until it ends. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        // set before the thread starts, so index/remove calls from here on are not overwritten by the export
+        loading = true;
+        Thread loader = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                customerService.exportCustomers(customer -> {
+                    synchronized (this) {
+                        if (!touchedWhileLoading.contains(customer.getId())) {
+                            put(customer.getId(), customer.getName(), customer.getEmail());
+                        }
+                    }
+                });
+                log.info("Customer search index built: {} customers, {} words in {} ms",
+                        entries.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.error("Building the customer search index failed", e);
+            } finally {
+                synchronized (this) {
+                    loading = false;
+                    touchedWhileLoading.clear();
+                }
+            }
+        }, "customer-search-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public List<CustomerSearchHit> search(String query, int limit) {
+        List<String> terms = words(query, false);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+
+        Set<Long> candidates = new LinkedHashSet<>();
+        String first = terms.get(0);
+        NavigableMap<String, Set<Long>> range = postings.subMap(first, true, first + Character.MAX_VALUE, false);
+        for (Set<Long> ids : range.values()) {
+            for (Long id : ids) {
+                candidates.add(id);
+                if (candidates.size() >= maxCandidates) {
+                    break;
+                }
+            }
+            if (candidates.size() >= maxCandidates) {
+                break;
+            }
+        }
+
+        List<CustomerSearchHit> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            int score = entry != null ? score(entry, terms) : 0;
+            if (score > 0) {
+                hits.add(new CustomerSearchHit(id, entry.name, entry.email, score));
+            }
+        }
+        hits.sort(Comparator.comparingInt(CustomerSearchHit::getScore).reversed()
+                .thenComparing(hit -> hit.getName() == null ? Integer.MAX_VALUE : hit.getName().length())
+                .thenComparing(CustomerSearchHit::getId));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    @Override
+    public void index(Customer customer) {
+        Long id = customer.getId();
+        String name = customer.getName();
+        String email = customer.getEmail();
+        if (id != null) {
+            afterCommit(() -> {
+                synchronized (this) {
+                    if (loading) {
+                        touchedWhileLoading.add(id);
+                    }
+                    put(id, name, email);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        if (id != null) {
+            afterCommit(() -> {
+                synchronized (this) {
+                    if (loading) {
+                        touchedWhileLoading.add(id);
+                    }
+                    Entry old = entries.remove(id);
+                    if (old != null) {
+                        unlink(old);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    /** Caller holds the monitor. */
+    private void put(Long id, String name, String email) {
+        List<String> nameWords = words(name, false);
+        List<String> emailWords = words(email, true);
+        String[] words = new String[nameWords.size() + emailWords.size()];
+        int i = 0;
+        for (String word : nameWords) {
+            words[i++] = word;
+        }
+        for (String word : emailWords) {
+            words[i++] = word;
+        }
+        Entry entry = new Entry(id, name, email, words, nameWords.size());
+        Entry old = entries.put(id, entry);
+        if (old != null) {
+            unlink(old);
+        }
+        for (int w = 0; w < words.length; w++) {
+            Set<Long> ids = postings.computeIfAbsent(words[w], key -> ConcurrentHashMap.newKeySet());
+            // share the map's key instance instead of keeping a copy of the word per customer
+            words[w] = postings.ceilingKey(words[w]);
+            ids.add(entry.id);
+        }
+    }
+
+    /** Caller holds the monitor. */
+    private void unlink(Entry entry) {
+        for (String word : entry.words) {
+            Set<Long> ids = postings.get(word);
+            if (ids != null) {
+                ids.remove(entry.id);
+                if (ids.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    private static int score(Entry entry, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (int w = 0; w < entry.words.length; w++) {
+                String word = entry.words[w];
+                if (word.startsWith(term)) {
+                    int score = word.length() == term.length() ? 2 : 1;
+                    if (w < entry.nameWords) {
+                        score *= 2;
+                        if (w == 0) {
+                            score += 1;
+                        }
+                    }
+                    best = Math.max(best, score);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /** Lower-case words of the text; for an email the top-level domain is dropped. */
+    private static List<String> words(String text, boolean email) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int end = lower.length();
+        if (email && lower.indexOf('@') >= 0 && lower.lastIndexOf('.') > lower.indexOf('@')) {
+            end = lower.lastIndexOf('.');
+        }
+        int start = -1;
+        for (int i = 0; i <= end; i++) {
+            boolean wordChar = i < end && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = lower.substring(start, i);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Entry {
+        final Long id;
+        final String name;
+        final String email;
+        final String[] words;
+        final int nameWords;
+
+        Entry(Long id, String name, String email, String[] words, int nameWords) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.words = words;
+            this.nameWords = nameWords;
+        }
+    }
+}
@@ -1,39 +1,345 @@
 package com.onlinebookstore.serviceImpl;
 
+import com.onlinebookstore.datasource.RoutingContext;
 import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.BulkUpsertResult;
+import com.onlinebookstore.model.CustomerPage;
+import com.onlinebookstore.model.InvalidEntry;
 import com.onlinebookstore.repository.CustomerRepository;
+import com.onlinebookstore.service.CustomerSearchService;
 import com.onlinebookstore.service.CustomerService;
+import com.onlinebookstore.utility.BatchLoader;
+import com.onlinebookstore.utility.Constants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final String INSERT_SQL = "insert into customer (name, email, create_date, update_date) values (?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update customer set name = ?, email = ?, update_date = ? where id = ?";
+
     @Autowired
     private CustomerRepository customerRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CustomerSearchService customerSearchService;
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.customer.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+    @Value("${app.customer.loader.window-micros:2000}")
+    private long loaderWindowMicros;
+    @Value("${app.customer.loader.max-batch-size:100}")
+    private int loaderMaxBatchSize;
+    @Value("${app.customer.loader.threads:4}")
+    private int loaderThreads;
+    @Value("${app.customer.loader.queue-capacity:64}")
+    private int loaderQueueCapacity;
+    @Value("${app.customer.loader.timeout-ms:5000}")
+    private long loaderTimeoutMillis;
 
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private BatchLoader<Long, Customer> customerLoader;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        customerLoader = new BatchLoader<>("customer-loader", this::findCustomers, loaderMaxBatchSize,
+                TimeUnit.MICROSECONDS.toNanos(loaderWindowMicros), loaderThreads, loaderQueueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        customerLoader.close();
+    }
+
+    /**
+     * Inserts when there is no id, otherwise issues a single UPDATE instead of the
+     * findById/merge round trips. Returns {@code null} if the id does not exist. For updates the
+     * returned entity is the argument with {@code updateDate} set; {@code createDate} is not re-read.
+     */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = Constants.CUSTOMER_CACHE, key = "#customer.id", condition = "#customer.id != null")
     public Customer addCustomerOrUpdateCustomer(Customer customer) {
         if (customer.getId() == null) {
-            customerRepository.save(customer);
-        } else {
-            Optional<Customer> custbyId = customerRepository.findById(customer.getId());
-            if (custbyId.isPresent()) {
-                customerRepository.save(customer);
+            Customer saved = customerRepository.save(customer);
+            customerSearchService.index(saved);
+            return saved;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int rows = customerRepository.updateCustomer(customer.getId(), customer.getName(), customer.getEmail(), now);
+        if (rows == 0) {
+            return null;
+        }
+        customer.setUpdateDate(now);
+        customerSearchService.index(customer);
+        return customer;
+    }
+
+    /**
+     * Applies the customers in chunks of {@code app.customer.bulk.chunk-size}, each chunk in its own
+     * transaction with one JDBC batch for inserts and one for updates. The JDBC path bypasses
+     * Hibernate, so entries are validated here first; invalid ones are reported and skipped.
+     */
+    @Override
+    public BulkUpsertResult upsertCustomers(List<Customer> entries) {
+        BulkUpsertResult result = new BulkUpsertResult();
+        List<Customer> customers = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Customer customer = entries.get(i);
+            List<String> errors = customer == null ? List.of("Customer cannot be null")
+                    : validator.validate(customer).stream().map(ConstraintViolation::getMessage).sorted().toList();
+            if (errors.isEmpty()) {
+                customers.add(customer);
+            } else {
+                result.getInvalid().add(new InvalidEntry(i, errors));
             }
         }
-        // If ID is null → new customer
-        return null;
+        for (int from = 0; from < customers.size(); from += bulkChunkSize) {
+            List<Customer> chunk = customers.subList(from, Math.min(from + bulkChunkSize, customers.size()));
+            List<Long> updatedIds = transactionTemplate.execute(status -> upsertChunk(chunk, result));
+            Cache cache = cacheManager.getCache(Constants.CUSTOMER_CACHE);
+            if (cache != null && updatedIds != null) {
+                updatedIds.forEach(cache::evict);
+            }
+        }
+        return result;
     }
 
+    private List<Long> upsertChunk(List<Customer> chunk, BulkUpsertResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Customer> inserts = new ArrayList<>();
+        List<Customer> updates = new ArrayList<>();
+        for (Customer customer : chunk) {
+            (customer.getId() == null ? inserts : updates).add(customer);
+        }
+
+        if (!inserts.isEmpty()) {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Customer customer = inserts.get(i);
+                            ps.setString(1, customer.getName());
+                            ps.setString(2, customer.getEmail());
+                            ps.setTimestamp(3, timestamp);
+                            ps.setTimestamp(4, timestamp);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return inserts.size();
+                        }
+                    },
+                    keyHolder);
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < inserts.size() && i < keys.size(); i++) {
+                Object key = keys.get(i).values().iterator().next();
+                inserts.get(i).setId(((Number) key).longValue());
+                inserts.get(i).setCreateDate(now);
+                inserts.get(i).setUpdateDate(now);
+                customerSearchService.index(inserts.get(i));
+            }
+            result.setInserted(result.getInserted() + inserts.size());
+        }
+
+        List<Long> updatedIds = new ArrayList<>();
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Customer customer = updates.get(i);
+                    ps.setString(1, customer.getName());
+                    ps.setString(2, customer.getEmail());
+                    ps.setTimestamp(3, timestamp);
+                    ps.setLong(4, customer.getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return updates.size();
+                }
+            });
+            for (int i = 0; i < updates.size(); i++) {
+                Customer customer = updates.get(i);
+                if (counts[i] == 0) {
+                    result.getNotFoundIds().add(customer.getId());
+                } else {
+                    customer.setUpdateDate(now);
+                    updatedIds.add(customer.getId());
+                    customerSearchService.index(customer);
+                }
+            }
+            result.setUpdated(result.getUpdated() + updatedIds.size());
+        }
+        return updatedIds;
+    }
+
+    /**
+     * Cache misses go through the coalescing loader, so concurrent requests for the same id share
+     * one query and misses within {@code app.customer.loader.window-micros} of each other are
+     * fetched with one IN query. Clients inside their read-your-writes window query directly so
+     * the read follows them to the primary. A lookup that takes longer than
+     * {@code app.customer.loader.timeout-ms} throws {@link QueryTimeoutException}.
+     */
     @Override
+    @Cacheable(cacheNames = Constants.CUSTOMER_CACHE, key = "#id", unless = "#result == null")
     public Customer getCustomerById(Long id) {
-        Optional<Customer> custbyId = customerRepository.findById(id);
-        if (custbyId.isPresent()) {
-            return custbyId.get();
+        if (RoutingContext.isRecentWriter()) {
+            return findCustomers(List.of(id)).get(id);
+        }
+        return await(customerLoader.load(id));
+    }
+
+    /**
+     * Returns the customers that exist, in the order their ids were given and without duplicates.
+     * Ids already in the customer cache are not queried; the rest are loaded like
+     * {@link #getCustomerById} and cached.
+     */
+    @Override
+    public List<Customer> getCustomersByIds(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(Constants.CUSTOMER_CACHE);
+        Map<Long, Customer> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Customer cached = cache != null ? cache.get(id, Customer.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, Customer> loaded = RoutingContext.isRecentWriter()
+                    ? findCustomers(missing)
+                    : await(customerLoader.loadAll(missing));
+            loaded.forEach((id, customer) -> {
+                found.put(id, customer);
+                if (cache != null) {
+                    cache.put(id, customer);
+                }
+            });
+        }
+        List<Customer> customers = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Customer customer = found.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+
+    /** One read-only transaction, one IN query per {@code app.customer.loader.max-batch-size} ids. */
+    private Map<Long, Customer> findCustomers(List<Long> ids) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            Map<Long, Customer> customers = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += loaderMaxBatchSize) {
+                for (Customer customer : customerRepository.findAllById(ids.subList(from, Math.min(from + loaderMaxBatchSize, ids.size())))) {
+                    customers.put(customer.getId(), customer);
+                }
+            }
+            return customers;
+        });
+    }
+
+    /** Waits at most {@code app.customer.loader.timeout-ms} and rethrows the loader's own exception. */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(loaderTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Customer lookup took longer than " + loaderTimeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading customers", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = Constants.CUSTOMER_CACHE, key = "#id")
+    public void deleteCustomer(Long id) {
+        customerRepository.deleteById(id);
+        customerSearchService.remove(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPage getCustomersAfter(Long afterId, int size) {
+        List<Customer> items = customerRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(size));
+        Long nextCursor = items.size() < size ? null : items.get(items.size() - 1).getId();
+        return new CustomerPage(items, nextCursor);
+    }
+
+    /**
+     * Hands every customer to the consumer in id order. Rows are detached once consumed so the
+     * persistence context does not grow with the table.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCustomers(Consumer<Customer> consumer) {
+        try (Stream<Customer> customers = customerRepository.streamAllBy()) {
+            customers.forEach(customer -> {
+                consumer.accept(customer);
+                entityManager.detach(customer);
+            });
         }
-        return null;
     }
 }
@@ -0,0 +1,157 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.model.BlobDescriptor;
+import com.onlinebookstore.model.FileUploadResult;
+import com.onlinebookstore.model.StagedBlob;
+import com.onlinebookstore.repository.FileRepository;
+import com.onlinebookstore.service.BlobStorageService;
+import com.onlinebookstore.service.FileIngestService;
+import com.onlinebookstore.utility.Constants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stages the bodies of a multi-file upload in parallel and then writes all metadata rows in one
+ * transaction, so Hibernate can send them as a single JDBC batch. The worker pool has a bounded
+ * queue and runs overflow work on the caller thread, which throttles a request that submits more
+ * files than the pool can absorb instead of letting work pile up in memory.
+ */
+@Service
+public class FileIngestServiceImpl implements FileIngestService {
+
+    @Autowired
+    private FileRepository fileRepository;
+    @Autowired
+    private BlobStorageService blobStorageService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.ingest.parallelism:4}")
+    private int parallelism;
+    @Value("${app.ingest.queue-capacity:16}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "file-ingest-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<FileUploadResult> ingest(MultipartFile[] files) {
+        List<FileUploadResult> results = new ArrayList<>();
+        if (files == null || files.length == 0) {
+            return results;
+        }
+
+        List<Future<StagedBlob>> pending = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            pending.add(executor.submit(() -> stage(file)));
+        }
+
+        List<StagedBlob> staged = new ArrayList<>();
+        List<MultipartFile> stagedFiles = new ArrayList<>();
+        List<FileUploadResult> stagedResults = new ArrayList<>();
+        for (int i = 0; i < files.length; i++) {
+            MultipartFile file = files[i];
+            FileUploadResult result = new FileUploadResult();
+            result.setFileName(file.getOriginalFilename());
+            try {
+                StagedBlob blob = pending.get(i).get();
+                staged.add(blob);
+                stagedFiles.add(file);
+                stagedResults.add(result);
+                result.setSize(blob.getSize());
+                result.setChecksum(blob.getChecksum());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(result, e);
+            } catch (ExecutionException e) {
+                fail(result, e.getCause());
+            }
+            results.add(result);
+        }
+
+        if (!staged.isEmpty()) {
+            try {
+                // Reference every blob first, then save the rows together: the reference upsert is a
+                // native statement and would flush (and so un-batch) any insert queued before it.
+                List<Files> saved = transactionTemplate.execute(status -> {
+                    List<Files> rows = new ArrayList<>(staged.size());
+                    for (int i = 0; i < staged.size(); i++) {
+                        BlobDescriptor blob = commit(staged.get(i));
+                        rows.add(FileServiceImpl.newFile(stagedFiles.get(i).getOriginalFilename(), stagedFiles.get(i).getContentType(), blob));
+                    }
+                    return fileRepository.saveAll(rows);
+                });
+                for (int i = 0; i < stagedResults.size(); i++) {
+                    stagedResults.get(i).setId(saved.get(i).getId());
+                    stagedResults.get(i).setStatus(Constants.SUCCESS);
+                    stagedResults.get(i).setMessage("File inserted successfully: " + stagedResults.get(i).getFileName());
+                }
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+                stagedResults.forEach(result -> fail(result, cause));
+            } finally {
+                staged.forEach(blobStorageService::discard);
+            }
+        }
+        return results;
+    }
+
+    private StagedBlob stage(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return blobStorageService.stage(in, file.getContentType());
+        }
+    }
+
+    private BlobDescriptor commit(StagedBlob blob) {
+        try {
+            return blobStorageService.commit(blob);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void fail(FileUploadResult result, Throwable e) {
+        result.setStatus(Constants.FAILED);
+        result.setMessage("Failed to upload file: " + e.getMessage());
+        result.setSize(null);
+        result.setChecksum(null);
+    }
+}
@@ -0,0 +1,105 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.model.BlobDescriptor;
+import com.onlinebookstore.model.FileSummary;
+import com.onlinebookstore.model.StagedBlob;
+import com.onlinebookstore.repository.FileRepository;
+import com.onlinebookstore.service.BlobStorageService;
+import com.onlinebookstore.service.FileService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@Service
+public class FileServiceImpl implements FileService {
+
+    @Autowired
+    private FileRepository fileRepository;
+    @Autowired
+    private BlobStorageService blobStorageService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Streams the body to a staged blob first, so the database transaction (and its connection)
+     * only covers referencing the blob and inserting the row.
+     */
+    @Override
+    public Files storeFile(MultipartFile file) throws IOException {
+        StagedBlob staged;
+        try (InputStream in = file.getInputStream()) {
+            staged = blobStorageService.stage(in, file.getContentType());
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    BlobDescriptor blob = blobStorageService.commit(staged);
+                    return fileRepository.save(newFile(file.getOriginalFilename(), file.getContentType(), blob));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            blobStorageService.discard(staged);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Files getFileById(Long id) {
+        return fileRepository.findById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<FileSummary> listFiles(Pageable pageable) {
+        return fileRepository.findAllProjectedBy(pageable);
+    }
+
+    @Override
+    public boolean deleteFile(Long id) {
+        Boolean deleted = transactionTemplate.execute(status -> fileRepository.findById(id).map(file -> {
+            fileRepository.delete(file);
+            if (file.getStorageKey() != null) {
+                try {
+                    blobStorageService.release(file.getStorageKey());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return true;
+        }).orElse(false));
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    static Files newFile(String fileName, String contentType, BlobDescriptor blob) {
+        Files fis = new Files();
+        fis.setFileName(fileName);
+        fis.setFileType(contentType);
+        fis.setStorageKey(blob.getStorageKey());
+        fis.setSize(blob.getSize());
+        fis.setChecksum(blob.getChecksum());
+        fis.setEncoding(blob.getEncoding());
+        return fis;
+    }
+}
@@ -0,0 +1,159 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onlinebookstore.entity.UserRegister;
+import com.onlinebookstore.model.LoginResponse;
+import com.onlinebookstore.model.TokenClaims;
+import com.onlinebookstore.service.TokenService;
+import com.onlinebookstore.web.TokenProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tokens are {@code <kid>.<payload>.<signature>}, Base64url without padding. The payload is
+ * binary: user id, issue and expiry times in epoch seconds, a random token id and the email;
+ * the signature is HMAC-SHA256 over {@code <kid>.<payload>}. Verification needs no database
+ * access, only the key and the in-memory revocation cache, which is per instance: a logout is
+ * not seen by other instances, where the token stays valid until it expires.
+ * <p>
+ * Without configured keys a random key is generated at startup, which is fine for a single
+ * development instance; tokens then do not survive a restart.
+ */
+@Service
+public class HmacTokenServiceImpl implements TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(HmacTokenServiceImpl.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int TOKEN_ID_BYTES = 12;
+    private static final int MIN_KEY_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private TokenProperties properties;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Mac> macs = new HashMap<>();
+    private String activeKid;
+    private Cache<String, Boolean> revoked;
+
+    @PostConstruct
+    public void init() {
+        properties.getKeys().forEach((kid, secret) -> {
+            byte[] key = Base64.getDecoder().decode(secret);
+            if (kid.contains(".") || key.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("Token key '" + kid + "' needs an id without '.' and at least " + MIN_KEY_BYTES + " bytes");
+            }
+            macs.put(kid, newMac(key));
+        });
+        activeKid = properties.getActiveKid();
+        if (macs.isEmpty()) {
+            byte[] key = new byte[MIN_KEY_BYTES];
+            random.nextBytes(key);
+            activeKid = "ephemeral";
+            macs.put(activeKid, newMac(key));
+            log.warn("No app.token.keys configured, signing session tokens with a random key that is lost on restart");
+        } else if (activeKid == null || !macs.containsKey(activeKid)) {
+            throw new IllegalStateException("app.token.active-kid must name one of app.token.keys");
+        }
+        revoked = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getRevocationMaxSize())
+                .build();
+    }
+
+    @Override
+    public LoginResponse issue(UserRegister user) {
+        byte[] tokenId = new byte[TOKEN_ID_BYTES];
+        random.nextBytes(tokenId);
+        byte[] email = user.getEmail() != null ? user.getEmail().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        long now = Instant.now().getEpochSecond();
+        long expiresAt = now + properties.getTtl().toSeconds();
+        ByteBuffer payload = ByteBuffer.allocate(3 * Long.BYTES + TOKEN_ID_BYTES + email.length)
+                .putLong(user.getId())
+                .putLong(now)
+                .putLong(expiresAt)
+                .put(tokenId)
+                .put(email);
+        String signed = activeKid + "." + ENCODER.encodeToString(payload.array());
+        String token = signed + "." + ENCODER.encodeToString(sign(activeKid, signed));
+        return new LoginResponse(token, "Bearer", Instant.ofEpochSecond(expiresAt), user);
+    }
+
+    /** Returns {@code null} for a malformed, forged, expired or revoked token. */
+    @Override
+    public TokenClaims verify(String token) {
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || last == first) {
+            return null;
+        }
+        String kid = token.substring(0, first);
+        if (!macs.containsKey(kid)) {
+            return null;
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(signature, sign(kid, token.substring(0, last)))) {
+                return null;
+            }
+            ByteBuffer payload = ByteBuffer.wrap(DECODER.decode(token.substring(first + 1, last)));
+            long userId = payload.getLong();
+            Instant issuedAt = Instant.ofEpochSecond(payload.getLong());
+            Instant expiresAt = Instant.ofEpochSecond(payload.getLong());
+            byte[] tokenId = new byte[TOKEN_ID_BYTES];
+            payload.get(tokenId);
+            String email = StandardCharsets.UTF_8.decode(payload).toString();
+            String id = ENCODER.encodeToString(tokenId);
+            if (!expiresAt.isAfter(Instant.now()) || revoked.getIfPresent(id) != null) {
+                return null;
+            }
+            return new TokenClaims(id, userId, email, issuedAt, expiresAt);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void revoke(TokenClaims claims) {
+        revoked.put(claims.getTokenId(), Boolean.TRUE);
+    }
+
+    private byte[] sign(String kid, String signed) {
+        Mac mac;
+        try {
+            // Mac is not thread-safe; a clone of the initialised prototype is cheaper than a fresh init.
+            mac = (Mac) macs.get(kid).clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        return mac.doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Mac newMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.BlobReference;
+import com.onlinebookstore.model.BlobDescriptor;
+import com.onlinebookstore.model.StagedBlob;
+import com.onlinebookstore.repository.BlobReferenceRepository;
+import com.onlinebookstore.service.BlobStorageService;
+import com.onlinebookstore.utility.Constants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps blobs in a local directory, content-addressed by the SHA-256 of the uploaded bytes and
+ * sharded by the first two characters of the hash. Identical uploads share one blob, tracked by
+ * {@link BlobReference}. Bodies of compressible content types are gzipped at rest
+ * ({@code <hash>.gz}).
+ * <p>
+ * Blobs are never deleted when their count drops to zero; {@link #sweep()} reclaims them after
+ * {@code app.storage.reclaim-grace} while holding the row lock, so an upload that is reusing
+ * the blob at the same moment either sees the row gone and places its own copy, or keeps it
+ * alive.
+ * <p>
+ * A blob placed by {@link #commit} whose transaction then rolls back is moved back to its
+ * staging file, unless by then another upload references the same content, in which case it
+ * stays and the staging file gets a copy. Either way callers can retry or discard as before,
+ * and the store never keeps a blob without a {@link BlobReference} row.
+ */
+@Service
+public class LocalBlobStorageServiceImpl implements BlobStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalBlobStorageServiceImpl.class);
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private BlobReferenceRepository blobReferenceRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.storage.location:./data/blobs}")
+    private String location;
+    @Value("${app.storage.compressible-types:text/*,application/json,application/xml,application/javascript,application/x-ndjson,image/svg+xml}")
+    private List<String> compressibleTypes;
+    @Value("${app.storage.reclaim-grace:PT1H}")
+    private Duration reclaimGrace;
+
+    private Path root;
+    private Path tmp;
+    private List<MediaType> compressibleMediaTypes;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate newTransactionTemplate;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(location).toAbsolutePath().normalize();
+        tmp = root.resolve("tmp");
+        java.nio.file.Files.createDirectories(tmp);
+        compressibleMediaTypes = compressibleTypes.stream().map(String::trim).map(MediaType::parseMediaType).toList();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        newTransactionTemplate = new TransactionTemplate(transactionManager);
+        newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public StagedBlob stage(InputStream inputStream, String contentType) throws IOException {
+        boolean compress = isCompressible(contentType);
+        MessageDigest digest = sha256();
+        Path tempFile = java.nio.file.Files.createTempFile(tmp, "upload-", ".part");
+        long size;
+        try (DigestInputStream in = new DigestInputStream(inputStream, digest);
+             OutputStream out = compress
+                     ? new GZIPOutputStream(java.nio.file.Files.newOutputStream(tempFile), BUFFER_SIZE)
+                     : new BufferedOutputStream(java.nio.file.Files.newOutputStream(tempFile), BUFFER_SIZE)) {
+            size = in.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            java.nio.file.Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new StagedBlob(tempFile, HexFormat.of().formatHex(digest.digest()), size, compress ? Constants.GZIP_ENCODING : null);
+    }
+
+    @Override
+    public Path newStagingFile() throws IOException {
+        return java.nio.file.Files.createTempFile(tmp, "assembled-", ".part");
+    }
+
+    /** Hashes the file in one sequential read; the body is stored as-is, never compressed. */
+    @Override
+    public StagedBlob adopt(Path stagingFile) throws IOException {
+        Path file = stagingFile.toAbsolutePath().normalize();
+        if (!tmp.equals(file.getParent())) {
+            throw new IllegalArgumentException("Not a staging file: " + stagingFile);
+        }
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                size += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return new StagedBlob(file, HexFormat.of().formatHex(digest.digest()), size, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BlobDescriptor commit(StagedBlob stagedBlob) throws IOException {
+        String hash = stagedBlob.getChecksum();
+        blobReferenceRepository.retain(hash, stagedBlob.getSize(), stagedBlob.getEncoding(), LocalDateTime.now());
+        Path existing = existingPath(hash);
+        String encoding;
+        if (existing != null) {
+            encoding = existing.getFileName().toString().endsWith(GZIP_SUFFIX) ? Constants.GZIP_ENCODING : null;
+        } else {
+            Path target = pathFor(hash, stagedBlob.getEncoding());
+            java.nio.file.Files.createDirectories(target.getParent());
+            java.nio.file.Files.move(stagedBlob.getTempFile(), target, StandardCopyOption.ATOMIC_MOVE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        unplace(hash, target, stagedBlob.getTempFile());
+                    }
+                }
+            });
+            encoding = stagedBlob.getEncoding();
+        }
+        return new BlobDescriptor(hash, stagedBlob.getSize(), hash, encoding);
+    }
+
+    @Override
+    public void discard(StagedBlob stagedBlob) {
+        if (stagedBlob == null) {
+            return;
+        }
+        try {
+            java.nio.file.Files.deleteIfExists(stagedBlob.getTempFile());
+        } catch (IOException e) {
+            log.warn("Could not delete staged blob {}", stagedBlob.getTempFile(), e);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String storageKey) throws IOException {
+        if (blobReferenceRepository.release(storageKey, LocalDateTime.now()) == 0 && !blobReferenceRepository.existsById(storageKey)) {
+            // Written before content addressing (random key, never shared), drop it once the row is gone.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteFiles(storageKey);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Path resolve(String storageKey) throws IOException {
+        Path path = existingPath(storageKey);
+        if (path == null) {
+            throw new FileNotFoundException("Blob not found: " + storageKey);
+        }
+        return path;
+    }
+
+    @Override
+    public boolean exists(String storageKey) {
+        return existingPath(storageKey) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.sweep-interval-ms:600000}", initialDelayString = "${app.storage.sweep-interval-ms:600000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(reclaimGrace);
+        for (BlobReference candidate : blobReferenceRepository.findTop100ByRefCountLessThanEqualAndUpdateDateBefore(0, cutoff)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> blobReferenceRepository.lockByHash(candidate.getHash())
+                        .filter(reference -> reference.getRefCount() <= 0 && reference.getUpdateDate().isBefore(cutoff))
+                        .ifPresent(reference -> {
+                            deleteFiles(reference.getHash());
+                            blobReferenceRepository.delete(reference);
+                        }));
+            } catch (RuntimeException e) {
+                log.warn("Could not reclaim blob {}", candidate.getHash(), e);
+            }
+        }
+    }
+
+    /**
+     * Undoes the move of a rolled-back {@link #commit}. The row lock (a gap lock while there is
+     * no row) orders this against a concurrent upload of the same content: it either retained
+     * the hash first and keeps the blob, or waits and then places its own copy.
+     */
+    private void unplace(String hash, Path target, Path stagingFile) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> {
+                try {
+                    if (blobReferenceRepository.lockByHash(hash).isPresent()) {
+                        java.nio.file.Files.copy(target, stagingFile, StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        java.nio.file.Files.move(target, stagingFile, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not take back blob {} after rollback", hash, e);
+        }
+    }
+
+    private void deleteFiles(String storageKey) {
+        try {
+            java.nio.file.Files.deleteIfExists(pathFor(storageKey, null));
+            java.nio.file.Files.deleteIfExists(pathFor(storageKey, Constants.GZIP_ENCODING));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path existingPath(String storageKey) {
+        Path plain = pathFor(storageKey, null);
+        if (java.nio.file.Files.isRegularFile(plain)) {
+            return plain;
+        }
+        Path compressed = pathFor(storageKey, Constants.GZIP_ENCODING);
+        return java.nio.file.Files.isRegularFile(compressed) ? compressed : null;
+    }
+
+    private Path pathFor(String storageKey, String encoding) {
+        if (storageKey == null || storageKey.length() < 2 || !storageKey.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Invalid storage key: " + storageKey);
+        }
+        String fileName = Constants.GZIP_ENCODING.equals(encoding) ? storageKey + GZIP_SUFFIX : storageKey;
+        return root.resolve(storageKey.substring(0, 2)).resolve(fileName);
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return compressibleMediaTypes.stream().anyMatch(type -> type.includes(mediaType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
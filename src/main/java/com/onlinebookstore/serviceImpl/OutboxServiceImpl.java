@@ -0,0 +1,259 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.entity.OutboxEvent;
+import com.onlinebookstore.repository.OutboxEventRepository;
+import com.onlinebookstore.service.OutboxHandler;
+import com.onlinebookstore.service.OutboxService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox. Events are written with the business change and drained by a poller
+ * that claims due rows ({@code for update skip locked}, so several instances can poll the same
+ * table), leases them for {@code app.outbox.lease-ms} and hands them to a small worker pool. A
+ * failed event is retried with exponential backoff and jitter until
+ * {@code app.outbox.max-attempts}, then parked as {@code FAILED} and handed to the handler's
+ * {@link OutboxHandler#failed} to release what it staged; an event nobody handles is parked
+ * straight away and the files its payload points to in the staging directory are removed. A
+ * worker that dies mid-event
+ * simply lets the lease run out; the event is claimed again and the stale worker's commit is
+ * rejected by the version check.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxServiceImpl.class);
+    private static final List<OutboxEvent.Status> CLAIMABLE = List.of(OutboxEvent.Status.PENDING, OutboxEvent.Status.PROCESSING);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired(required = false)
+    private List<OutboxHandler> handlerBeans = Collections.emptyList();
+
+    @Value("${app.outbox.workers:2}")
+    private int workers;
+    @Value("${app.outbox.lease-ms:300000}")
+    private long leaseMillis;
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+    @Value("${app.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMillis;
+    @Value("${app.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMillis;
+    @Value("${app.outbox.staging-location:./data/outbox}")
+    private String stagingLocation;
+
+    private Map<String, OutboxHandler> handlers;
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transactionTemplate;
+    private Path stagingRoot;
+
+    @PostConstruct
+    public void init() {
+        handlers = handlerBeans.stream().collect(Collectors.toMap(OutboxHandler::getEventType, Function.identity()));
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workers * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        stagingRoot = Paths.get(stagingLocation).toAbsolutePath().normalize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String eventType, Long aggregateId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+        event.setStatus(OutboxEvent.Status.PENDING);
+        event.setAvailableAt(LocalDateTime.now());
+        outboxEventRepository.save(event);
+    }
+
+    @Override
+    public long countPending() {
+        return outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING)
+                + outboxEventRepository.countByStatus(OutboxEvent.Status.PROCESSING);
+    }
+
+    /** Claims only as many events as the worker queue has room for. */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void poll() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.findByStatusInAndAvailableAtLessThanEqualOrderByIdAsc(CLAIMABLE, now, Limit.of(capacity));
+            for (OutboxEvent event : due) {
+                if (event.getStatus() == OutboxEvent.Status.PROCESSING) {
+                    log.warn("Outbox event {} outlived its lease, claiming it again", event.getId());
+                }
+                event.setStatus(OutboxEvent.Status.PROCESSING);
+                event.setAvailableAt(now.plusNanos(leaseMillis * 1_000_000L));
+            }
+            return due;
+        });
+        // versions were bumped by the claim's flush, so each copy below is current
+        claimed.forEach(event -> executor.execute(() -> process(event)));
+    }
+
+    private void process(OutboxEvent event) {
+        OutboxHandler handler = handlers.get(event.getEventType());
+        if (handler == null) {
+            if (giveUp(event, "No handler for event type " + event.getEventType())) {
+                cleanUp(event, this::removeStaged);
+            }
+            return;
+        }
+        try (OutboxHandler.Prepared prepared = handler.prepare(event)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                prepared.apply();
+                event.setStatus(OutboxEvent.Status.DONE);
+                event.setLastError(null);
+                // merge checks the version: if the lease ran out and the event was claimed again,
+                // this throws and the work above rolls back
+                outboxEventRepository.save(event);
+            });
+        } catch (Exception e) {
+            if (retryLater(event, e)) {
+                cleanUp(event, handler::failed);
+            }
+            return;
+        }
+        cleanUp(event, handler::completed);
+    }
+
+    private void cleanUp(OutboxEvent event, Consumer<OutboxEvent> callback) {
+        try {
+            callback.accept(event);
+        } catch (RuntimeException e) {
+            log.warn("Clean-up after outbox event {} failed", event.getId(), e);
+        }
+    }
+
+    /** Returns true if the event was parked as {@code FAILED}. */
+    private boolean retryLater(OutboxEvent claimed, Exception cause) {
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> outboxEventRepository.findById(claimed.getId())
+                .filter(current -> current.getVersion().equals(claimed.getVersion()))
+                .map(current -> {
+                    current.setAttempts(current.getAttempts() + 1);
+                    current.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+                    if (current.getAttempts() >= maxAttempts) {
+                        current.setStatus(OutboxEvent.Status.FAILED);
+                        log.error("Outbox event {} ({}) failed {} times, giving up", current.getId(), current.getEventType(), current.getAttempts(), cause);
+                        return true;
+                    }
+                    current.setStatus(OutboxEvent.Status.PENDING);
+                    current.setAvailableAt(LocalDateTime.now().plusNanos(backoffMillis(current.getAttempts()) * 1_000_000L));
+                    log.warn("Outbox event {} ({}) failed, attempt {} of {}: {}", current.getId(), current.getEventType(), current.getAttempts(), maxAttempts, message);
+                    return false;
+                })
+                .orElse(false)));
+    }
+
+    /** Returns true if the event was parked as {@code FAILED}. */
+    private boolean giveUp(OutboxEvent claimed, String reason) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> outboxEventRepository.findById(claimed.getId())
+                .filter(current -> current.getVersion().equals(claimed.getVersion()))
+                .map(current -> {
+                    current.setStatus(OutboxEvent.Status.FAILED);
+                    current.setLastError(reason);
+                    log.error("Outbox event {}: {}", current.getId(), reason);
+                    return true;
+                })
+                .orElse(false)));
+    }
+
+    /**
+     * Failure clean-up for events without a handler: removes every {@code path} in the payload
+     * that lies in the staging directory, and its directory once empty.
+     */
+    private void removeStaged(OutboxEvent event) {
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(event.getPayload());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not read the payload of outbox event {}", event.getId(), e);
+            return;
+        }
+        for (JsonNode node : payload.findValues("path")) {
+            if (!node.isTextual()) {
+                continue;
+            }
+            Path path = Paths.get(node.asText()).toAbsolutePath().normalize();
+            if (!path.startsWith(stagingRoot) || path.equals(stagingRoot)) {
+                continue;
+            }
+            try {
+                java.nio.file.Files.deleteIfExists(path);
+                Path directory = path.getParent();
+                if (!directory.equals(stagingRoot)) {
+                    java.nio.file.Files.deleteIfExists(directory);
+                }
+            } catch (DirectoryNotEmptyException e) {
+                // other staged files of the event are still to come
+            } catch (IOException e) {
+                log.warn("Could not remove staged file {} of outbox event {}", path, event.getId(), e);
+            }
+        }
+    }
+
+    /** Full jitter over an exponentially growing cap. */
+    private long backoffMillis(int attempts) {
+        long cap = backoffBaseMillis << Math.min(attempts - 1, 20);
+        cap = Math.min(Math.max(cap, backoffBaseMillis), backoffMaxMillis);
+        return ThreadLocalRandom.current().nextLong(backoffBaseMillis / 2, cap + 1);
+    }
+}
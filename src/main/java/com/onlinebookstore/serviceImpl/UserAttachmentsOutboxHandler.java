@@ -0,0 +1,113 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.entity.OutboxEvent;
+import com.onlinebookstore.model.BlobDescriptor;
+import com.onlinebookstore.model.StagedAttachment;
+import com.onlinebookstore.model.StagedBlob;
+import com.onlinebookstore.repository.FileRepository;
+import com.onlinebookstore.service.BlobStorageService;
+import com.onlinebookstore.service.OutboxHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the files attached to a registration. They were parked in the outbox staging
+ * directory by the request; here they are hashed into the blob store and their rows written
+ * in the transaction that completes the event. Blob references are content-addressed and
+ * counted inside that transaction, so a retry after a failure leaves no duplicates. The staged
+ * files are removed once the event is done or has been parked as failed.
+ */
+@Service
+public class UserAttachmentsOutboxHandler implements OutboxHandler {
+
+    public static final String EVENT_TYPE = "USER_ATTACHMENTS";
+
+    private static final Logger log = LoggerFactory.getLogger(UserAttachmentsOutboxHandler.class);
+
+    @Autowired
+    private FileRepository fileRepository;
+    @Autowired
+    private BlobStorageService blobStorageService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String getEventType() {
+        return EVENT_TYPE;
+    }
+
+    @Override
+    public Prepared prepare(OutboxEvent event) throws Exception {
+        StagedAttachment[] attachments = objectMapper.readValue(event.getPayload(), StagedAttachment[].class);
+        List<StagedBlob> staged = new ArrayList<>(attachments.length);
+        try {
+            for (StagedAttachment attachment : attachments) {
+                try (InputStream in = java.nio.file.Files.newInputStream(Paths.get(attachment.getPath()))) {
+                    staged.add(blobStorageService.stage(in, attachment.getContentType()));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            staged.forEach(blobStorageService::discard);
+            throw e;
+        }
+        return new Prepared() {
+            @Override
+            public void apply() {
+                List<Files> rows = new ArrayList<>(staged.size());
+                for (int i = 0; i < staged.size(); i++) {
+                    BlobDescriptor blob;
+                    try {
+                        blob = blobStorageService.commit(staged.get(i));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows.add(FileServiceImpl.newFile(attachments[i].getFileName(), attachments[i].getContentType(), blob));
+                }
+                fileRepository.saveAll(rows);
+            }
+
+            @Override
+            public void close() {
+                staged.forEach(blobStorageService::discard);
+            }
+        };
+    }
+
+    @Override
+    public void completed(OutboxEvent event) {
+        removeStaged(event);
+    }
+
+    @Override
+    public void failed(OutboxEvent event) {
+        removeStaged(event);
+    }
+
+    private void removeStaged(OutboxEvent event) {
+        try {
+            Path directory = null;
+            for (StagedAttachment attachment : objectMapper.readValue(event.getPayload(), StagedAttachment[].class)) {
+                Path path = Paths.get(attachment.getPath());
+                java.nio.file.Files.deleteIfExists(path);
+                directory = path.getParent();
+            }
+            if (directory != null) {
+                java.nio.file.Files.deleteIfExists(directory);
+            }
+        } catch (IOException e) {
+            log.warn("Could not remove staged attachments of outbox event {}", event.getId(), e);
+        }
+    }
+}
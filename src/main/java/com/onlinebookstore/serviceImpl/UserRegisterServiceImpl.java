@@ -1,77 +1,211 @@
 package com.onlinebookstore.serviceImpl;
 
-import com.onlinebookstore.entity.Files;
 import com.onlinebookstore.entity.UserRegister;
 import com.onlinebookstore.model.LoginModel;
+import com.onlinebookstore.model.StagedAttachment;
 import com.onlinebookstore.model.UserRegData;
-import com.onlinebookstore.repository.FileRepository;
 import com.onlinebookstore.repository.UserRepository;
+import com.onlinebookstore.service.OutboxService;
+import com.onlinebookstore.service.PasswordHashingService;
 import com.onlinebookstore.service.UserRegisterService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class UserRegisterServiceImpl implements UserRegisterService {
+    private static final Logger log = LoggerFactory.getLogger(UserRegisterServiceImpl.class);
+
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private FileRepository fileRepository;
+    private OutboxService outboxService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor applicationTaskExecutor;
+
+    @Value("${app.outbox.staging-location:./data/outbox}")
+    private String stagingLocation;
+
+    private Path stagingRoot;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private String dummyHash;
+
+    @PostConstruct
+    public void init() throws IOException {
+        stagingRoot = Paths.get(stagingLocation).toAbsolutePath().normalize();
+        java.nio.file.Files.createDirectories(stagingRoot);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        dummyHash = passwordHashingService.hash(UUID.randomUUID().toString()).join();
+    }
 
+    /**
+     * Hashes the password on the hashing pool and saves the user on the application task
+     * executor once the hash is ready; the calling thread does not wait for either. A full
+     * hashing pool throws {@link RejectedExecutionException} straight away. The future fails
+     * with {@link DataIntegrityViolationException} for an email that is already registered and
+     * completes with {@code null} if the user could not be saved for another reason.
+     */
     @Override
-    public UserRegister createUserRegService(UserRegData userRegData) {
-        UserRegister user = null;
-        try {
-            user = new UserRegister();
-            user.setFirstName(userRegData.getFirstName());
-            user.setLastName(userRegData.getLastName());
-            user.setEmail(userRegData.getEmail());
-            user.setPassword(Base64.getEncoder().encodeToString(userRegData.getPassword().getBytes()));
-            user.setContactId(userRegData.getContactId());
-            userRepository.save(user);
+    public CompletableFuture<UserRegister> createUserRegService(UserRegData userRegData) {
+        return passwordHashingService.hash(userRegData.getPassword()).thenApplyAsync(passwordHash -> {
+            UserRegister user = newUser(userRegData, passwordHash);
+            try {
+                return userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("Could not register user {}", userRegData.getEmail(), e);
+                return null;
+            }
+        }, applicationTaskExecutor);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    private static UserRegister newUser(UserRegData userRegData, String passwordHash) {
+        UserRegister user = new UserRegister();
+        user.setFirstName(userRegData.getFirstName());
+        user.setLastName(userRegData.getLastName());
+        user.setEmail(userRegData.getEmail());
+        user.setPassword(passwordHash);
+        user.setContactId(userRegData.getContactId());
         return user;
     }
 
+    /**
+     * Completes on the hashing pool once bcrypt has checked the password, with {@code null} for
+     * an unknown email or a wrong password. An unknown email is checked against a dummy hash so
+     * it takes as long as a wrong password. Legacy Base64 passwords are checked in place and
+     * the user is let in straight away; the bcrypt hash that replaces the stored value is
+     * computed in the background, and skipped if the pool is full (the next login retries it).
+     * The stored value is replaced on the application task executor, not on the hashing pool.
+     */
     @Override
-    public UserRegister createLoginUser(LoginModel loginModel) {
-        UserRegister userEmail=userRepository.findByEmail(loginModel.getEmail());
-        if(userEmail!=null){
-            String decode=new String(Base64.getDecoder().decode(userEmail.getPassword()));
-            if(decode.equals(loginModel.getPassword())){
-                return userEmail;
-            }
+    public CompletableFuture<UserRegister> createLoginUser(LoginModel loginModel) {
+        UserRegister user = readOnlyTransactionTemplate.execute(status -> userRepository.findByEmail(loginModel.getEmail()));
+        if (user == null || user.getPassword() == null) {
+            return passwordHashingService.matches(loginModel.getPassword(), dummyHash).thenApply(matches -> null);
+        }
+        String stored = user.getPassword();
+        if (!passwordHashingService.isLegacy(stored)) {
+            return passwordHashingService.matches(loginModel.getPassword(), stored).thenApply(matches -> matches ? user : null);
+        }
+        if (!legacyMatches(loginModel.getPassword(), stored)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            passwordHashingService.hash(loginModel.getPassword())
+                    .thenAcceptAsync(hash -> transactionTemplate.executeWithoutResult(status -> userRepository.replacePassword(user.getId(), stored, hash)),
+                            applicationTaskExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Could not rehash the password of user {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            log.debug("Hashing pool full, user {} keeps the legacy password until the next login", user.getId());
+        }
+        return CompletableFuture.completedFuture(user);
+    }
+
+    private static boolean legacyMatches(String rawPassword, String stored) {
+        try {
+            return MessageDigest.isEqual(Base64.getDecoder().decode(stored), rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return false;
         }
-        return null;
     }
+
+    /**
+     * Commits the user together with an outbox event for the attachments; the files are stored by
+     * {@link UserAttachmentsOutboxHandler} in the background. The uploads are moved into the
+     * staging directory on the calling thread while bcrypt runs, which is a rename when the
+     * container spooled them to the same filesystem; the commit runs on the application task
+     * executor once the hash is ready. Failures are reported like {@link #createUserRegService},
+     * and the staged files are removed with them.
+     */
     @Override
-    public UserRegister createUserRegServiceWithFiles(UserRegData userRegData, MultipartFile[] files){
-        UserRegister user=null;
+    public CompletableFuture<UserRegister> createUserRegServiceWithFiles(UserRegData userRegData, MultipartFile[] files){
+        CompletableFuture<String> passwordHash = passwordHashingService.hash(userRegData.getPassword());
+        Path directory = null;
+        List<StagedAttachment> attachments = new ArrayList<>();
         try{
-            user=new UserRegister();
-            user.setFirstName(userRegData.getFirstName());
-            user.setLastName(userRegData.getLastName());
-            user.setEmail(userRegData.getEmail());
-            user.setPassword(Base64.getEncoder().encodeToString(userRegData.getPassword().getBytes()));
-            user.setContactId(userRegData.getContactId());
-            userRepository.save(user);
             if(files!=null && files.length>0){
-                for(MultipartFile multipartFile : files){
-                    Files fis = new Files();
-                    fis.setFileType(multipartFile.getContentType());
-                    fis.setFileName(multipartFile.getOriginalFilename());
-                    fis.setData(multipartFile.getBytes());
-                    fileRepository.save(fis);
+                directory = stagingRoot.resolve(UUID.randomUUID().toString());
+                java.nio.file.Files.createDirectories(directory);
+                for (int i = 0; i < files.length; i++) {
+                    Path target = directory.resolve(Integer.toString(i));
+                    attachments.add(new StagedAttachment(files[i].getOriginalFilename(), files[i].getContentType(), target.toString()));
+                    files[i].transferTo(target.toFile());
                 }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Could not register user {}", userRegData.getEmail(), e);
+            discard(directory, attachments);
+            return CompletableFuture.completedFuture(null);
+        }
+        Path stagedDirectory = directory;
+        return passwordHash.thenApplyAsync(hash -> {
+            UserRegister user = newUser(userRegData, hash);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userRepository.save(user);
+                    if (!attachments.isEmpty()) {
+                        outboxService.enqueue(UserAttachmentsOutboxHandler.EVENT_TYPE, user.getId(), attachments);
+                    }
+                });
+                return user;
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("Could not register user {}", userRegData.getEmail(), e);
+                return null;
+            }
+        }, applicationTaskExecutor).whenComplete((user, e) -> {
+            if (user == null) {
+                discard(stagedDirectory, attachments);
+            }
+        });
+    }
+
+    private static void discard(Path directory, List<StagedAttachment> attachments) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            for (StagedAttachment attachment : attachments) {
+                java.nio.file.Files.deleteIfExists(Paths.get(attachment.getPath()));
+            }
+            java.nio.file.Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.warn("Could not remove staged attachments in {}", directory, e);
         }
-        return user;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.onlinebookstore.utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * DataLoader-style request coalescing. Concurrent loads of the same key share one pending
+ * future, and keys requested within {@code window} of the first one in a batch are fetched
+ * together with a single call to the batch function (sooner once {@code maxBatchSize} keys are
+ * waiting). Batches run on a small pool of their own threads; a key the batch function does not
+ * return resolves to {@code null}. At most {@code queueCapacity} batches wait for a thread;
+ * beyond that the keys of a batch fail with {@link RejectedExecutionException}.
+ * <p>
+ * {@link #close} dispatches the keys still waiting for their window and lets queued batches
+ * finish; later loads fail with {@link IllegalStateException}.
+ */
+public class BatchLoader<K, V> implements AutoCloseable {
+
+    private final Function<List<K>, Map<K, V>> batchFunction;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final ScheduledExecutorService timer;
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<K> pending = new ArrayList<>();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    public BatchLoader(String name, Function<List<K>, Map<K, V>> batchFunction, int maxBatchSize, long windowNanos,
+                       int threads, int queueCapacity) {
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = windowNanos;
+        AtomicInteger counter = new AtomicInteger();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, name + "-timer"));
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> daemon(runnable, name + "-" + counter.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        List<K> full = null;
+        synchronized (lock) {
+            if (closed) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(new IllegalStateException("Loader is closed"));
+                return created;
+            }
+            pending.add(key);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new ArrayList<>();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                timer.schedule(this::flushPending, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return created;
+    }
+
+    /** Loads every key, coalesced like {@link #load}; keys without a value are left out of the map. */
+    public CompletableFuture<Map<K, V>> loadAll(Collection<K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            futures.put(key, load(key));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            Map<K, V> values = new LinkedHashMap<>();
+            futures.forEach((key, future) -> {
+                V value = future.join();
+                if (value != null) {
+                    values.put(key, value);
+                }
+            });
+            return values;
+        });
+    }
+
+    @Override
+    public void close() {
+        List<K> batch;
+        synchronized (lock) {
+            closed = true;
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        timer.shutdownNow();
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+        workers.shutdown();
+    }
+
+    private void flushPending() {
+        List<K> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new ArrayList<>();
+            flushScheduled = false;
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<K> batch) {
+        try {
+            workers.execute(() -> {
+                try {
+                    Map<K, V> values = batchFunction.apply(batch);
+                    for (K key : batch) {
+                        CompletableFuture<V> future = inFlight.remove(key);
+                        if (future != null) {
+                            future.complete(values.get(key));
+                        }
+                    }
+                } catch (Throwable e) {
+                    fail(batch, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void fail(List<K> batch, Throwable cause) {
+        for (K key : batch) {
+            CompletableFuture<V> future = inFlight.remove(key);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -5,4 +5,8 @@ public class Constants {
     public static final String FAILED = "Failed";
     public static final String FAILURE = "Failure";
 
+    public static final String CUSTOMER_CACHE = "customers";
+
+    public static final String GZIP_ENCODING = "gzip";
+
 }
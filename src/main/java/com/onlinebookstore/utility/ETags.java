@@ -0,0 +1,27 @@
+package com.onlinebookstore.utility;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators for conditional GETs. Entities get a weak ETag from id and update time; stored
+ * files get a strong ETag from their content hash.
+ */
+public class ETags {
+
+    private ETags() {
+    }
+
+    public static String weak(Object id, LocalDateTime updateDate) {
+        return "W/\"" + id + "-" + epochMillis(updateDate) + "\"";
+    }
+
+    public static String strong(String contentHash) {
+        return "\"" + contentHash + "\"";
+    }
+
+    /** Milliseconds since the epoch in the server zone, or -1 when unknown. */
+    public static long epochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
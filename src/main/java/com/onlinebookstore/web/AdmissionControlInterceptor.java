@@ -0,0 +1,72 @@
+package com.onlinebookstore.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of handlers running at once to the size of the connection pool. With virtual
+ * threads the container no longer limits concurrency, so without this thousands of parked
+ * requests would queue inside the pool; here they wait on a fair semaphore for a bounded time
+ * and get a fast 503 instead. Runs after multipart parsing, so slow uploads don't hold a permit
+ * while the body is still arriving. The permit is released as soon as a handler goes async
+ * (streamed bodies, deferred results), and the re-dispatch that writes the result does not
+ * take another one.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".PERMIT";
+
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+
+    public AdmissionControlInterceptor(int maxConcurrent, long maxWaitMillis) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            // async re-dispatch of a request that was already admitted
+            return true;
+        }
+        if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, retry later");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (Boolean.TRUE.equals(request.getAttribute(PERMIT_ATTRIBUTE))) {
+            request.setAttribute(PERMIT_ATTRIBUTE, Boolean.FALSE);
+            permits.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        if (Boolean.TRUE.equals(permit)) {
+            permits.release();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+}
@@ -0,0 +1,143 @@
+package com.onlinebookstore.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.model.ResponseMessage;
+import com.onlinebookstore.utility.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers over-budget requests to the user and file endpoints with an immediate {@code 429}
+ * and {@code Retry-After}. Each endpoint class has its own token bucket per client address.
+ * Uploads must also fit under a global cap on request bytes in flight, reserved from
+ * {@code Content-Length} before the body is read. Runs as a servlet filter, ahead of multipart
+ * parsing, so a rejected upload is never buffered.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String LOGIN = "login";
+    public static final String REGISTER = "register";
+    public static final String UPLOAD = "upload";
+    public static final String FILES = "files";
+    /** Chunks of resumable uploads, budgeted apart so a large file isn't throttled like many small ones. */
+    public static final String CHUNK = "chunk";
+
+    private final Map<String, RateLimiter> limiters = new HashMap<>();
+    private final Map<String, Counter> rejected = new HashMap<>();
+    private final AtomicLong uploadBytesInFlight = new AtomicLong();
+    private final long uploadMaxInFlightBytes;
+    private final long uploadUnknownLengthBytes;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        properties.getBudgets().forEach((endpointClass, budget) -> {
+            limiters.put(endpointClass, new RateLimiter(budget.getCapacity(), budget.getRefillPerSecond(), properties.getMaxKeys()));
+            if (meterRegistry != null) {
+                rejected.put(endpointClass, Counter.builder("ratelimit.rejected").tag("endpoint", endpointClass).register(meterRegistry));
+            }
+        });
+        this.uploadMaxInFlightBytes = properties.getUploadMaxInFlightBytes();
+        this.uploadUnknownLengthBytes = properties.getUploadUnknownLengthBytes();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String endpointClass = classify(request);
+        RateLimiter limiter = endpointClass != null ? limiters.get(endpointClass) : null;
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            reject(response, endpointClass, waitNanos, "Too many requests, retry later");
+            return;
+        }
+        if (!UPLOAD.equals(endpointClass) && !CHUNK.equals(endpointClass)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long bytes = request.getContentLengthLong() >= 0 ? request.getContentLengthLong() : uploadUnknownLengthBytes;
+        if (!reserve(bytes)) {
+            reject(response, endpointClass, TimeUnit.SECONDS.toNanos(1), "Too many uploads in progress, retry later");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            uploadBytesInFlight.addAndGet(-bytes);
+        }
+    }
+
+    public long getUploadBytesInFlight() {
+        return uploadBytesInFlight.get();
+    }
+
+    private boolean reserve(long bytes) {
+        while (true) {
+            long current = uploadBytesInFlight.get();
+            if (current + bytes > uploadMaxInFlightBytes) {
+                return false;
+            }
+            if (uploadBytesInFlight.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String endpointClass, long waitNanos, String message) throws IOException {
+        Counter counter = rejected.get(endpointClass);
+        if (counter != null) {
+            counter.increment();
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ResponseMessage(HttpStatus.TOO_MANY_REQUESTS.value(), Constants.FAILED, message));
+    }
+
+    private static String classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if ("POST".equals(method)) {
+            switch (path) {
+                case "/login":
+                    return LOGIN;
+                case "/userRegister":
+                    return REGISTER;
+                case "/userRegisterwithfile":
+                case "/upload":
+                case "/uploadMultiple":
+                case "/uploads":
+                    return UPLOAD;
+                default:
+                    return path.startsWith("/uploads/") ? UPLOAD : null;
+            }
+        }
+        if ("PUT".equals(method) && path.startsWith("/uploads/")) {
+            return CHUNK;
+        }
+        if (path.equals("/files") || path.startsWith("/files/") || path.startsWith("/getfiles/") || path.startsWith("/uploads/")) {
+            return FILES;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.onlinebookstore.web;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code app.ratelimit.*}: a token-bucket budget per endpoint class and client address, one per
+ * login email, and a cap on upload bytes in flight across all clients.
+ */
+@Data
+@ConfigurationProperties("app.ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    /** Most clients (or emails) tracked per budget. */
+    private long maxKeys = 100_000;
+    private Map<String, Budget> budgets = new LinkedHashMap<>(Map.of(
+            RateLimitFilter.LOGIN, new Budget(10, 1),
+            RateLimitFilter.REGISTER, new Budget(5, 0.2),
+            RateLimitFilter.UPLOAD, new Budget(20, 2),
+            RateLimitFilter.FILES, new Budget(200, 50),
+            RateLimitFilter.CHUNK, new Budget(100, 20)));
+    /** Per email and client address, so other clients cannot use up a user's budget. */
+    private Budget loginPerEmail = new Budget(5, 0.1);
+    private long uploadMaxInFlightBytes = 2L * 1024 * 1024 * 1024;
+    /** Charged against the in-flight cap for uploads sent without a Content-Length. */
+    private long uploadUnknownLengthBytes = 64L * 1024 * 1024;
+
+    /** Set both fields when overriding a budget. */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Budget {
+        private long capacity;
+        private double refillPerSecond;
+    }
+}
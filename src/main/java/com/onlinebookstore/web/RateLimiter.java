@@ -0,0 +1,41 @@
+package com.onlinebookstore.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link TokenBucket} per key (client address, email, ...). Buckets idle for longer than it
+ * takes them to refill completely are evicted, which loses nothing since a new bucket starts
+ * full, and the number of keys is capped so a flood of distinct keys can't exhaust the heap.
+ */
+public class RateLimiter {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimiter(long capacity, double refillPerSecond, long maxKeys) {
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(capacity * nanosPerToken).plusSeconds(1))
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /** 0 if the key may proceed, otherwise the nanoseconds until it may. */
+    public long tryAcquire(String key) {
+        return buckets.get(key, k -> new TokenBucket(capacity, nanosPerToken)).tryAcquire(System.nanoTime());
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long estimatedKeys() {
+        return buckets.estimatedSize();
+    }
+}
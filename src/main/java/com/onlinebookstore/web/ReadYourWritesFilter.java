@@ -0,0 +1,40 @@
+package com.onlinebookstore.web;
+
+import com.onlinebookstore.datasource.ReplicaRouter;
+import com.onlinebookstore.datasource.RoutingContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the calling client to the request thread so its reads go to the primary right after
+ * it wrote. Clients are told apart by {@value #CLIENT_HEADER} when they send it, by remote
+ * address otherwise.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final ReplicaRouter router;
+
+    public ReadYourWritesFilter(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(CLIENT_HEADER);
+        String client = header != null && !header.isBlank() ? header : request.getRemoteAddr();
+        RoutingContext.bindClient(client, router.wroteRecently(client));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.onlinebookstore.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.model.ResponseMessage;
+import com.onlinebookstore.model.TokenClaims;
+import com.onlinebookstore.service.TokenService;
+import com.onlinebookstore.utility.Constants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Verifies a {@code Authorization: Bearer} session token in memory and exposes its claims as
+ * the {@value #CLAIMS_ATTRIBUTE} request attribute. Requests without the header pass through
+ * unauthenticated; endpoints that need a user check for the attribute. An invalid, expired or
+ * revoked token gets a {@code 401} on the protected paths only; elsewhere (e.g. {@code /login}
+ * with a stale token still attached) it is ignored and the request goes on unauthenticated.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String CLAIMS_ATTRIBUTE = "com.onlinebookstore.web.TokenAuthenticationFilter.claims";
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+    private final List<String> protectedPaths;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public TokenAuthenticationFilter(TokenService tokenService, ObjectMapper objectMapper, String... protectedPaths) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+        this.protectedPaths = List.of(protectedPaths);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        TokenClaims claims = tokenService.verify(authorization.substring(BEARER.length()).trim());
+        if (claims == null) {
+            if (!isProtected(request)) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ResponseMessage(HttpStatus.UNAUTHORIZED.value(), Constants.FAILED, "Invalid or expired token"));
+            return;
+        }
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean isProtected(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return protectedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+}
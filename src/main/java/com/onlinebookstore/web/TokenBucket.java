@@ -0,0 +1,35 @@
+package com.onlinebookstore.web;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding {@code capacity} tokens that refill at a fixed rate. The state
+ * is a single timestamp, the moment the bucket would be full again (the GCRA form of a token
+ * bucket), so taking a token is one compare-and-set and no refill thread is needed.
+ */
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(long capacity, long nanosPerToken) {
+        this.nanosPerToken = nanosPerToken;
+        this.burstNanos = capacity * nanosPerToken;
+    }
+
+    /** Takes a token if there is one and returns 0, otherwise returns the nanoseconds until there is. */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = (current == Long.MIN_VALUE || current - nowNanos < 0 ? nowNanos : current) + nanosPerToken;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.onlinebookstore.web;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code app.token.*}: HMAC-SHA256 signing keys for session tokens by key id. Tokens are signed
+ * with {@code active-kid} and verified with whichever key their id names, so a key is rotated
+ * by adding the new one, switching {@code active-kid}, and removing the old one once
+ * {@code ttl} has passed.
+ */
+@Data
+@ConfigurationProperties("app.token")
+public class TokenProperties {
+
+    /** Key id to secret, Base64, at least 32 bytes once decoded. */
+    private Map<String, String> keys = new LinkedHashMap<>();
+    private String activeKid;
+    private Duration ttl = Duration.ofHours(1);
+    /** Most revoked tokens remembered; entries expire with the token lifetime. */
+    private long revocationMaxSize = 100_000;
+}
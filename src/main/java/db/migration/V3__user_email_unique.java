@@ -0,0 +1,53 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Login looks users up by email, so email becomes unique. A database baselined at V1 may already
+ * have the constraint from ddl-auto=update, and MySQL has no "add constraint if not exists", hence
+ * Java: the constraint is only added when no unique index on email alone exists yet. Fails if
+ * duplicate emails exist; resolve those first.
+ */
+public class V3__user_email_unique extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (hasUniqueEmailIndex(connection)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table user_register add constraint uk_user_register_email unique (email)");
+        }
+    }
+
+    private boolean hasUniqueEmailIndex(Connection connection) throws SQLException {
+        for (String table : new String[]{"user_register", "USER_REGISTER"}) {
+            Map<String, List<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, true)) {
+                while (indexes.next()) {
+                    String column = indexes.getString("COLUMN_NAME");
+                    if (column != null) {
+                        columnsByIndex.computeIfAbsent(indexes.getString("INDEX_NAME"), name -> new ArrayList<>()).add(column);
+                    }
+                }
+            }
+            for (List<String> columns : columnsByIndex.values()) {
+                if (columns.size() == 1 && columns.get(0).equalsIgnoreCase("email")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
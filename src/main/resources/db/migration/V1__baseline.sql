@@ -0,0 +1,70 @@
+-- Schema as of the introduction of versioned migrations. Databases created earlier by
+-- ddl-auto=update are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table customer (
+    id bigint not null auto_increment,
+    name varchar(255),
+    email varchar(255),
+    create_date datetime(6),
+    update_date datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table user_register (
+    id bigint not null auto_increment,
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255),
+    password varchar(255),
+    contact_id bigint,
+    created_date datetime(6),
+    updated_date datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table files (
+    id bigint not null,
+    filename varchar(255),
+    filetype varchar(255),
+    data longblob,
+    storage_key varchar(255),
+    file_size bigint,
+    checksum varchar(64),
+    content_encoding varchar(255),
+    create_date datetime(6),
+    update_date datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- Hibernate's table-backed emulation of the pooled files_seq sequence
+create table files_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into files_seq values (1);
+
+create table blob_reference (
+    hash varchar(64) not null,
+    ref_count integer not null,
+    blob_size bigint,
+    content_encoding varchar(255),
+    create_date datetime(6),
+    update_date datetime(6),
+    primary key (hash)
+) engine=InnoDB;
+
+create table outbox_event (
+    id bigint not null auto_increment,
+    event_type varchar(64) not null,
+    aggregate_id bigint,
+    payload text,
+    status varchar(16) not null,
+    attempts integer not null,
+    available_at datetime(6) not null,
+    last_error varchar(1000),
+    version bigint,
+    create_date datetime(6),
+    update_date datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_outbox_status_available on outbox_event (status, available_at);
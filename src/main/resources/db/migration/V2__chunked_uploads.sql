@@ -0,0 +1,26 @@
+-- "if not exists": a database baselined at V1 may already have these tables from ddl-auto=update.
+create table if not exists upload_session (
+    id varchar(36) not null,
+    filename varchar(255),
+    filetype varchar(255),
+    total_size bigint not null,
+    chunk_size integer not null,
+    chunk_count integer not null,
+    temp_path varchar(1024),
+    status varchar(16) not null,
+    file_id bigint,
+    expires_at datetime(6) not null,
+    create_date datetime(6),
+    update_date datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table if not exists upload_chunk (
+    id bigint not null auto_increment,
+    session_id varchar(36) not null,
+    chunk_index integer not null,
+    chunk_size bigint not null,
+    create_date datetime(6),
+    primary key (id),
+    constraint uk_upload_chunk unique (session_id, chunk_index)
+) engine=InnoDB;
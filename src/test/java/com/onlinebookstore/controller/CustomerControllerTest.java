@@ -0,0 +1,84 @@
+package com.onlinebookstore.controller;
+
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.service.CustomerService;
+import com.onlinebookstore.utility.ETags;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CustomerControllerTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_000_000);
+
+    private final Customer customer = new Customer();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        customer.setId(1L);
+        customer.setName("Ann");
+        customer.setEmail("ann@example.com");
+        customer.setUpdateDate(UPDATED);
+        CustomerService customerService = mock(CustomerService.class);
+        when(customerService.getCustomerById(1L)).thenReturn(customer);
+
+        CustomerController controller = new CustomerController();
+        ReflectionTestUtils.setField(controller, "customerService", customerService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void responseCarriesAWeakEtagFromIdAndUpdateTime() throws Exception {
+        mockMvc.perform(get("/rest/customer/1"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-" + ETags.epochMillis(UPDATED) + "\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.name").value("Ann"));
+    }
+
+    @Test
+    void matchingIfNoneMatchIs304WithoutABody() throws Exception {
+        mockMvc.perform(get("/rest/customer/1").header(HttpHeaders.IF_NONE_MATCH, ETags.weak(1L, UPDATED)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.weak(1L, UPDATED)))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void changedCustomerIsSentAgain() throws Exception {
+        String stale = ETags.weak(1L, UPDATED);
+        customer.setUpdateDate(UPDATED.plusSeconds(1));
+
+        mockMvc.perform(get("/rest/customer/1").header(HttpHeaders.IF_NONE_MATCH, stale))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.weak(1L, UPDATED.plusSeconds(1))));
+    }
+
+    @Test
+    void ifModifiedSinceIsHonouredWithoutAnEtag() throws Exception {
+        long lastModified = ETags.epochMillis(UPDATED) / 1000 * 1000;
+        mockMvc.perform(get("/rest/customer/1").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/rest/customer/1").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified - 1000))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void unknownCustomerIs404() throws Exception {
+        mockMvc.perform(get("/rest/customer/2")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,175 @@
+package com.onlinebookstore.controller;
+
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.service.BlobStorageService;
+import com.onlinebookstore.service.FileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FileControllerTest {
+
+    private static final String BODY = "0123456789";
+    private static final String CHECKSUM = "abc123";
+
+    @TempDir
+    Path storage;
+
+    private MockMvc mockMvc;
+    private Files file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path blob = storage.resolve(CHECKSUM);
+        java.nio.file.Files.writeString(blob, BODY, StandardCharsets.US_ASCII);
+        file = new Files();
+        file.setId(1L);
+        file.setFileName("digits.txt");
+        file.setFileType("text/plain");
+        file.setStorageKey(CHECKSUM);
+        file.setChecksum(CHECKSUM);
+        file.setSize((long) BODY.length());
+        file.setUpdateDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+
+        FileService fileService = mock(FileService.class);
+        when(fileService.getFileById(1L)).thenReturn(file);
+        BlobStorageService blobStorageService = mock(BlobStorageService.class);
+        when(blobStorageService.resolve(CHECKSUM)).thenReturn(blob);
+
+        FileController controller = new FileController();
+        ReflectionTestUtils.setField(controller, "fileService", fileService);
+        ReflectionTestUtils.setField(controller, "blobStorageService", blobStorageService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void wholeFileWithoutRange() throws Exception {
+        perform(get("/getfiles/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BODY.length()))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void openAndSuffixRanges() throws Exception {
+        perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=7-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+        perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=-2"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-9/10"))
+                .andExpect(content().string("89"));
+        perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=5-100"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/10"))
+                .andExpect(content().string("56789"));
+    }
+
+    @Test
+    void unsatisfiableRangeIs416() throws Exception {
+        mockMvc.perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void multipleRangesGetTheWholeFile() throws Exception {
+        perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void ifRangeWithAStaleEtagGetsTheWholeFile() throws Exception {
+        perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+        perform(get("/getfiles/1").header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"" + CHECKSUM + "\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void contentHashEtagAnswers304() throws Exception {
+        perform(get("/getfiles/1"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CHECKSUM + "\""));
+        mockMvc.perform(get("/getfiles/1").header(HttpHeaders.IF_NONE_MATCH, "\"" + CHECKSUM + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        perform(get("/getfiles/1").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+    }
+
+    @Test
+    void gzipVariantHasItsOwnEtag() throws Exception {
+        file.setEncoding("gzip");
+        java.nio.file.Files.write(storage.resolve(CHECKSUM), gzip(BODY));
+
+        perform(get("/getfiles/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CHECKSUM + "-gzip\""))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        perform(get("/getfiles/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CHECKSUM + "\""))
+                .andExpect(content().string(BODY));
+        mockMvc.perform(get("/getfiles/1").header(HttpHeaders.IF_NONE_MATCH, "\"" + CHECKSUM + "\""))
+                .andExpect(status().isNotModified());
+        perform(get("/getfiles/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, "\"" + CHECKSUM + "\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unknownFileIs404() throws Exception {
+        mockMvc.perform(get("/getfiles/2")).andExpect(status().isNotFound());
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body.getBytes(StandardCharsets.US_ASCII));
+        }
+        return bytes.toByteArray();
+    }
+
+    /** The body is a StreamingResponseBody, written on an async dispatch. */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,82 @@
+package com.onlinebookstore.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoutingDataSourceTest {
+
+    private ReplicaRouter router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        router = new ReplicaRouter(primary, Map.of("replica-0", replica), Duration.ofSeconds(30), 1);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(router));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        RoutingContext.clear();
+        router.close();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+        assertEquals("replica", reads.execute(status -> whichDatabase()));
+        assertEquals("primary", writes.execute(status -> whichDatabase()));
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenNoReplicaIsHealthy() {
+        router.markUnhealthy("replica-0", new IllegalStateException("down"));
+        assertEquals("primary", reads.execute(status -> whichDatabase()));
+
+        router.checkReplicas();
+        assertEquals("replica", reads.execute(status -> whichDatabase()));
+    }
+
+    @Test
+    void clientReadsItsOwnWritesFromPrimary() {
+        RoutingContext.bindClient("writer");
+        writes.executeWithoutResult(status -> jdbcTemplate.update("update marker set name = name"));
+        assertEquals("primary", reads.execute(status -> whichDatabase()));
+
+        RoutingContext.bindClient("someone-else");
+        assertEquals("replica", reads.execute(status -> whichDatabase()));
+    }
+
+    private String whichDatabase() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists marker (name varchar(20))");
+        jdbcTemplate.update("delete from marker");
+        jdbcTemplate.update("insert into marker (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,75 @@
+package com.onlinebookstore.repository;
+
+import com.onlinebookstore.entity.Files;
+import com.onlinebookstore.model.FileSummary;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:files;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FileRepositoryTest {
+
+    @Autowired
+    private FileRepository fileRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void listingReturnsMetadataOnly() {
+        Long first = save("a.txt", "legacy body").getId();
+        Long second = save("b.txt", null).getId();
+        entityManager.clear();
+
+        Page<FileSummary> page = fileRepository.findAllProjectedBy(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(second, page.getContent().get(0).getId());
+        assertEquals("a.txt", page.getContent().get(1).getFileName());
+        assertEquals(first, fileRepository.findSummaryById(first).orElseThrow().getId());
+        // projections select columns, no entity (and no blob) is loaded
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void blobColumnIsLoadedOnFirstAccess() {
+        Long id = save("a.txt", "legacy body").getId();
+        entityManager.clear();
+
+        Files file = fileRepository.findById(id).orElseThrow();
+
+        assertEquals("a.txt", file.getFileName());
+        assertFalse(Hibernate.isPropertyInitialized(file, "data"));
+        assertArrayEquals("legacy body".getBytes(StandardCharsets.UTF_8), file.getData());
+        assertTrue(Hibernate.isPropertyInitialized(file, "data"));
+    }
+
+    private Files save(String name, String body) {
+        Files file = new Files();
+        file.setFileName(name);
+        file.setFileType("text/plain");
+        if (body != null) {
+            file.setData(body.getBytes(StandardCharsets.UTF_8));
+            file.setSize((long) file.getData().length);
+        }
+        return entityManager.persistFlushFind(file);
+    }
+}
@@ -0,0 +1,53 @@
+package com.onlinebookstore.repository;
+
+import com.onlinebookstore.entity.Files;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilesSequenceInitializerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private FilesSequenceInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:files-seq-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table files (id bigint primary key)");
+        jdbcTemplate.execute("create table files_seq (next_val bigint)");
+        initializer = new FilesSequenceInitializer();
+        ReflectionTestUtils.setField(initializer, "dataSource", dataSource);
+    }
+
+    @Test
+    void movesFreshSequencePastExistingIds() throws Exception {
+        jdbcTemplate.update("insert into files values (7), (1234)");
+        jdbcTemplate.update("insert into files_seq values (1)");
+
+        initializer.run(null);
+
+        assertEquals(1234 + Files.ID_ALLOCATION_SIZE + 1, nextVal());
+    }
+
+    @Test
+    void leavesSequenceThatIsAlreadyAheadAlone() throws Exception {
+        jdbcTemplate.update("insert into files values (10)");
+        jdbcTemplate.update("insert into files_seq values (5000)");
+
+        initializer.run(null);
+        initializer.run(null);
+
+        assertEquals(5000, nextVal());
+    }
+
+    private long nextVal() {
+        return jdbcTemplate.queryForObject("select next_val from files_seq", Long.class);
+    }
+}
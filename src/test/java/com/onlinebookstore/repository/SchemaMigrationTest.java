@@ -0,0 +1,94 @@
+package com.onlinebookstore.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.sequence.NoSequenceSupport;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Applies db/migration to an empty database and lets Hibernate validate the result against the
+ * entity mappings, the same schema a faststart node gets from Flyway. Also runs them over a
+ * schema that ddl-auto created, which is what the first faststart boot finds after baselining.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=com.onlinebookstore.repository.SchemaMigrationTest$MySqlModeH2Dialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void migrationsMatchTheEntities() {
+        // the context only starts if ddl-auto=validate accepted the migrated schema
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void laterMigrationsRunOverABaselinedDdlAutoSchema() {
+        jdbcTemplate.execute("drop all objects");
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getSchemaManager().exportMappedObjects(true);
+
+        Flyway baselining = Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .baselineOnMigrate(true)
+                .load();
+        assertEquals(2, baselining.migrate().migrationsExecuted);
+        assertEquals(1, uniqueEmailIndexes());
+
+        sessionFactory.getSchemaManager().validateMappedObjects();
+    }
+
+    @Test
+    void emailBecomesUniqueOnAnEmptyDatabase() {
+        assertEquals(1, uniqueEmailIndexes());
+    }
+
+    private int uniqueEmailIndexes() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.index_columns where table_name = 'user_register'"
+                        + " and column_name = 'email' and is_unique", Integer.class);
+    }
+
+    /**
+     * H2 with MySQL's view of the schema: no native sequences (files_seq is a table there), and
+     * longblob is the LONGVARBINARY MySQL reports rather than the BLOB H2 reports.
+     */
+    public static class MySqlModeH2Dialect extends H2Dialect {
+        @Override
+        public SequenceSupport getSequenceSupport() {
+            return NoSequenceSupport.INSTANCE;
+        }
+
+        @Override
+        public boolean equivalentTypes(int typeCode1, int typeCode2) {
+            return super.equivalentTypes(typeCode1, typeCode2)
+                    || typeCode1 == Types.BLOB && typeCode2 == Types.VARBINARY
+                    || typeCode1 == Types.VARBINARY && typeCode2 == Types.BLOB;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.model.FileUploadResult;
+import com.onlinebookstore.model.UploadSessionRequest;
+import com.onlinebookstore.model.UploadSessionStatus;
+import com.onlinebookstore.repository.FileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:uploads;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.upload.min-chunk-size=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ChunkedUploadServiceImpl.class, LocalBlobStorageServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChunkedUploadServiceImplTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij!".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    static Path storage;
+
+    @DynamicPropertySource
+    static void storageLocation(DynamicPropertyRegistry registry) {
+        registry.add("app.storage.location", storage::toString);
+    }
+
+    @Autowired
+    private ChunkedUploadServiceImpl chunkedUploadService;
+    @Autowired
+    private LocalBlobStorageServiceImpl blobStorageService;
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Test
+    void chunksLandAtTheirOffsetsInAnyOrder() throws Exception {
+        UploadSessionStatus session = chunkedUploadService.createSession(new UploadSessionRequest("a.txt", "text/plain", (long) CONTENT.length, 8));
+        assertEquals(3, session.getChunkCount());
+        assertEquals(List.of(0, 1, 2), session.getMissingChunks());
+
+        write(session.getUploadId(), 2);
+        UploadSessionStatus status = write(session.getUploadId(), 0);
+        assertEquals(List.of(1), status.getMissingChunks());
+        assertEquals(8 + 5, status.getReceivedBytes());
+        // a resent chunk is accepted and still counted once
+        status = write(session.getUploadId(), 0);
+        assertEquals(List.of(0, 2), status.getReceivedChunks().stream().sorted().toList());
+
+        write(session.getUploadId(), 1);
+        FileUploadResult result = chunkedUploadService.complete(session.getUploadId(), sha256(CONTENT));
+
+        assertEquals(sha256(CONTENT), result.getChecksum());
+        String key = fileRepository.findById(result.getId()).orElseThrow().getStorageKey();
+        assertArrayEquals(CONTENT, Files.readAllBytes(blobStorageService.resolve(key)));
+        assertEquals("COMPLETE", chunkedUploadService.getStatus(session.getUploadId()).getStatus());
+        // completing again returns the same file
+        assertEquals(result.getId(), chunkedUploadService.complete(session.getUploadId(), null).getId());
+    }
+
+    @Test
+    void chunkWithTheWrongLengthIsRejected() throws Exception {
+        UploadSessionStatus session = chunkedUploadService.createSession(new UploadSessionRequest("b.txt", "text/plain", (long) CONTENT.length, 8));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> chunkedUploadService.writeChunk(session.getUploadId(), 2, 8, new ByteArrayInputStream(new byte[8])));
+        assertThrows(IllegalArgumentException.class,
+                () -> chunkedUploadService.writeChunk(session.getUploadId(), 3, 5, new ByteArrayInputStream(new byte[5])));
+        assertThrows(IllegalStateException.class, () -> chunkedUploadService.complete(session.getUploadId(), null));
+    }
+
+    @Test
+    void failedCompleteKeepsTheSessionFileForARetry() throws Exception {
+        UploadSessionStatus session = chunkedUploadService.createSession(new UploadSessionRequest("c.txt", "text/plain", (long) CONTENT.length, 8));
+        for (int i = 0; i < session.getChunkCount(); i++) {
+            write(session.getUploadId(), i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> chunkedUploadService.complete(session.getUploadId(), sha256(new byte[1])));
+
+        assertEquals("OPEN", chunkedUploadService.getStatus(session.getUploadId()).getStatus());
+        FileUploadResult result = chunkedUploadService.complete(session.getUploadId(), sha256(CONTENT));
+        assertEquals(sha256(CONTENT), result.getChecksum());
+    }
+
+    @Test
+    void completeWaitsForAChunkInFlightAndLaterWritesAreRejected() throws Exception {
+        UploadSessionStatus session = chunkedUploadService.createSession(new UploadSessionRequest("e.txt", "text/plain", (long) CONTENT.length, 8));
+        for (int i = 0; i < session.getChunkCount(); i++) {
+            write(session.getUploadId(), i);
+        }
+        // a retry of chunk 0 with other bytes, stalled halfway through the body
+        CountDownLatch halfway = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        InputStream stalled = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() {
+                if (read == 4) {
+                    halfway.countDown();
+                    try {
+                        resume.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                read++;
+                return 'x';
+            }
+        };
+        CompletableFuture<UploadSessionStatus> retry = CompletableFuture.supplyAsync(() -> {
+            try {
+                return chunkedUploadService.writeChunk(session.getUploadId(), 0, 8, stalled);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(halfway.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<FileUploadResult> completing = CompletableFuture.supplyAsync(() -> {
+            try {
+                return chunkedUploadService.complete(session.getUploadId(), null);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(completing.isDone());
+
+        resume.countDown();
+        retry.get(5, TimeUnit.SECONDS);
+        FileUploadResult result = completing.get(5, TimeUnit.SECONDS);
+
+        byte[] expected = CONTENT.clone();
+        Arrays.fill(expected, 0, 8, (byte) 'x');
+        assertEquals(sha256(expected), result.getChecksum());
+        String key = fileRepository.findById(result.getId()).orElseThrow().getStorageKey();
+        assertArrayEquals(expected, Files.readAllBytes(blobStorageService.resolve(key)));
+        assertThrows(IllegalStateException.class, () -> write(session.getUploadId(), 0));
+    }
+
+    @Test
+    void abortRemovesTheSessionFile() throws Exception {
+        Path probe = blobStorageService.newStagingFile();
+        Path staging = probe.getParent();
+        Files.delete(probe);
+        long before = count(staging);
+        UploadSessionStatus session = chunkedUploadService.createSession(new UploadSessionRequest("d.txt", "text/plain", (long) CONTENT.length, 8));
+        assertEquals(before + 1, count(staging));
+
+        assertTrue(chunkedUploadService.abort(session.getUploadId()));
+        assertEquals(before, count(staging));
+        assertNull(chunkedUploadService.getStatus(session.getUploadId()));
+    }
+
+    private UploadSessionStatus write(String uploadId, int index) throws Exception {
+        int from = index * 8;
+        byte[] chunk = Arrays.copyOfRange(CONTENT, from, Math.min(from + 8, CONTENT.length));
+        return chunkedUploadService.writeChunk(uploadId, index, chunk.length, new ByteArrayInputStream(chunk));
+    }
+
+    private static long count(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
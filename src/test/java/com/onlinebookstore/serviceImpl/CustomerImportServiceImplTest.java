@@ -0,0 +1,202 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.BulkUpsertResult;
+import com.onlinebookstore.model.ImportJobStatus;
+import com.onlinebookstore.service.CustomerService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerImportServiceImplTest {
+
+    @TempDir
+    Path workDir;
+
+    private final List<Customer> upserted = new ArrayList<>();
+    private ValidatorFactory validatorFactory;
+    private CustomerImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CustomerService customerService = mock(CustomerService.class);
+        when(customerService.upsertCustomers(anyList())).thenAnswer(invocation -> {
+            List<Customer> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(customer -> customer.getName().length() > 255)) {
+                throw new DataIntegrityViolationException("Value too long for column name");
+            }
+            BulkUpsertResult result = new BulkUpsertResult();
+            for (Customer customer : batch) {
+                upserted.add(customer);
+                if (customer.getId() == null) {
+                    result.setInserted(result.getInserted() + 1);
+                } else if (customer.getId() == 404L) {
+                    result.getNotFoundIds().add(customer.getId());
+                } else {
+                    result.setUpdated(result.getUpdated() + 1);
+                }
+            }
+            return result;
+        });
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importService = new CustomerImportServiceImpl();
+        ReflectionTestUtils.setField(importService, "customerService", customerService);
+        ReflectionTestUtils.setField(importService, "validator", validatorFactory.getValidator());
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(importService, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(importService, "location", workDir.toString());
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.setField(importService, "parallelism", 1);
+        ReflectionTestUtils.setField(importService, "retention", Duration.ofHours(1));
+        importService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        validatorFactory.close();
+    }
+
+    @Test
+    void csvWithHeaderAndQuotedCells() throws Exception {
+        String csv = """
+                email,name,id
+                "ann@example.com","Smith, Ann",
+                bob@example.com,Bob,7
+
+                not-an-email,Carl,
+                dora@example.com,Dora,abc
+                eve@example.com,Eve,404
+                """;
+
+        ImportJobStatus status = run(csv, "customers.csv", null);
+
+        assertEquals("Completed", status.getStatus());
+        assertEquals(5, status.getRowsRead());
+        assertEquals(2, status.getAccepted());
+        assertEquals(3, status.getRejected());
+        assertEquals("Smith, Ann", upserted.get(0).getName());
+        assertNull(upserted.get(0).getId());
+        assertEquals(7L, upserted.get(1).getId());
+
+        List<String> rejects = Files.readAllLines(importService.getRejectFile(status.getJobId()));
+        assertEquals(3, rejects.size());
+        assertTrue(rejects.get(0).startsWith("5,\"Email should be valid\""));
+        assertTrue(rejects.get(1).startsWith("6,\"Unparseable row"));
+        assertEquals("7,\"Customer id not found\",\"404\"", rejects.get(2));
+    }
+
+    @Test
+    void csvWithoutHeaderTakesNameThenEmail() throws Exception {
+        ImportJobStatus status = run("Ann,ann@example.com\n12,Bob,bob@example.com\n", "customers.csv", null);
+
+        assertEquals(2, status.getAccepted());
+        assertEquals("ann@example.com", upserted.get(0).getEmail());
+        assertEquals(12L, upserted.get(1).getId());
+        assertEquals("bob@example.com", upserted.get(1).getEmail());
+    }
+
+    @Test
+    void quotedCellsMaySpanLines() throws Exception {
+        String csv = "name,email\n\"Ann\nSmith\",ann@example.com\nBob,bob@example.com\n\"Carl \"\"C\"\"\",not-an-email\n";
+
+        ImportJobStatus status = run(csv, "customers.csv", null);
+
+        assertEquals(3, status.getRowsRead());
+        assertEquals(2, status.getAccepted());
+        assertEquals("Ann\nSmith", upserted.get(0).getName());
+        assertEquals("Bob", upserted.get(1).getName());
+        // line numbers still point at the file's lines
+        assertTrue(Files.readString(importService.getRejectFile(status.getJobId())).startsWith("5,\"Email should be valid\""));
+    }
+
+    @Test
+    void batchRefusedByTheDatabaseIsRetriedRowByRow() throws Exception {
+        String longName = "x".repeat(300);
+        String csv = "name,email\nAnn,ann@example.com\n" + longName + ",long@example.com\nBob,bob@example.com\n";
+
+        ImportJobStatus status = run(csv, "customers.csv", null);
+
+        assertEquals("Completed", status.getStatus());
+        assertEquals(2, status.getAccepted());
+        assertEquals(1, status.getRejected());
+        assertEquals(List.of("Ann", "Bob"), upserted.stream().map(Customer::getName).toList());
+        assertEquals("3,\"Refused by the database: Value too long for column name\",\"" + longName + ",long@example.com\"",
+                Files.readString(importService.getRejectFile(status.getJobId())).strip());
+    }
+
+    @Test
+    void ndjsonRejectsBadLinesAndInvalidCustomers() throws Exception {
+        String ndjson = """
+                {"name":"Ann","email":"ann@example.com"}
+                {"name":"Bob",
+                {"email":"carl@example.com"}
+                """;
+
+        ImportJobStatus status = run(ndjson, "customers.jsonl", null);
+
+        assertEquals("Completed", status.getStatus());
+        assertEquals(3, status.getRowsRead());
+        assertEquals(1, status.getAccepted());
+        assertEquals(2, status.getRejected());
+        // parser messages span lines, which is fine inside a quoted CSV cell
+        String rejects = Files.readString(importService.getRejectFile(status.getJobId()));
+        assertTrue(rejects.startsWith("2,\"Unparseable row"));
+        assertTrue(rejects.contains("\n3,\"Name cannot be empty\","));
+    }
+
+    @Test
+    void finishedJobsExpireWithTheirRejectFile() throws Exception {
+        ReflectionTestUtils.setField(importService, "retention", Duration.ofMillis(200));
+        importService.shutdown();
+        importService.init();
+
+        ImportJobStatus status = run("bad,row,x\n", "customers.csv", "csv");
+        Path rejectFile = importService.getRejectFile(status.getJobId());
+        assertNotNull(rejectFile);
+
+        for (int i = 0; i < 100 && importService.getStatus(status.getJobId()) != null; i++) {
+            Thread.sleep(50);
+        }
+        assertNull(importService.getStatus(status.getJobId()));
+        for (int i = 0; i < 100 && Files.exists(rejectFile); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(Files.exists(rejectFile));
+    }
+
+    private ImportJobStatus run(String content, String fileName, String format) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", fileName, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+        String jobId = importService.startImport(file, format).getJobId();
+        ImportJobStatus status = importService.getStatus(jobId);
+        for (int i = 0; i < 200 && "Running".equals(status.getStatus()); i++) {
+            Thread.sleep(20);
+            status = importService.getStatus(jobId);
+        }
+        return status;
+    }
+}
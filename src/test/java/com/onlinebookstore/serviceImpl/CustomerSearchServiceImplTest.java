@@ -0,0 +1,152 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.CustomerSearchHit;
+import com.onlinebookstore.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CustomerSearchServiceImplTest {
+
+    private CustomerSearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new CustomerSearchServiceImpl(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(searchService, "maxCandidates", 2000);
+        searchService.index(customer(1L, "Mary Jones", "mary@example.com"));
+        searchService.index(customer(2L, "John Smith", "js@example.com"));
+        searchService.index(customer(3L, "Bob Stone", "bob@johnson.io"));
+        searchService.index(customer(4L, "Johnny Appleseed", "apple@example.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void exactFirstNameWordRanksAbovePrefixesAndEmail() {
+        List<CustomerSearchHit> hits = searchService.search("john", 10);
+
+        // exact first name word, prefix of first name word, prefix in the email domain
+        assertEquals(List.of(2L, 4L, 3L), ids(hits));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+        assertTrue(hits.get(1).getScore() > hits.get(2).getScore());
+    }
+
+    @Test
+    void nameBeatsEmailAndTiesGoToTheShorterName() {
+        searchService.index(customer(5L, "Jo", "x@example.com"));
+
+        // "jo": 5 and 2 and 4 match a first name word, 1 a later name word, 3 only its email
+        assertEquals(List.of(5L, 2L, 4L, 1L, 3L), ids(searchService.search("jo", 10)));
+        assertEquals(List.of(5L, 2L), ids(searchService.search("jo", 2)));
+    }
+
+    @Test
+    void everyQueryWordMustMatch() {
+        assertEquals(List.of(2L), ids(searchService.search("smi jo", 10)));
+        assertEquals(List.of(), ids(searchService.search("smith mary", 10)));
+        assertEquals(List.of(1L), ids(searchService.search("MARY example", 10)));
+    }
+
+    @Test
+    void topLevelDomainAndPunctuationAreNotIndexed() {
+        assertEquals(List.of(), ids(searchService.search("com", 10)));
+        assertEquals(List.of(), ids(searchService.search("  ..  ", 10)));
+        assertEquals(List.of(3L), ids(searchService.search("johnson", 10)));
+    }
+
+    @Test
+    void updateReplacesTheOldWords() {
+        searchService.index(customer(2L, "Jack Smith", "js@example.com"));
+
+        assertEquals(List.of(4L, 3L), ids(searchService.search("john", 10)));
+        assertEquals(List.of(2L), ids(searchService.search("jack", 10)));
+        assertEquals(4, searchService.size());
+    }
+
+    @Test
+    void removeDropsTheCustomer() {
+        searchService.remove(4L);
+
+        assertEquals(List.of(2L, 3L), ids(searchService.search("john", 10)));
+        assertEquals(List.of(), ids(searchService.search("apple", 10)));
+        assertEquals(3, searchService.size());
+    }
+
+    @Test
+    void changesInsideATransactionApplyOnCommitOnly() {
+        TransactionSynchronizationManager.initSynchronization();
+        searchService.index(customer(6L, "Zed Zulu", "zed@example.com"));
+        searchService.remove(1L);
+
+        assertEquals(List.of(), ids(searchService.search("zed", 10)));
+        assertEquals(List.of(1L), ids(searchService.search("mary", 10)));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of(6L), ids(searchService.search("zed", 10)));
+        assertEquals(List.of(), ids(searchService.search("mary", 10)));
+    }
+
+    @Test
+    void changesWhileTheIndexIsBuildingWinOverTheExport() throws Exception {
+        CountDownLatch exportMayRun = new CountDownLatch(1);
+        CountDownLatch exported = new CountDownLatch(1);
+        CustomerService customerService = mock(CustomerService.class);
+        doAnswer(invocation -> {
+            Consumer<Customer> consumer = invocation.getArgument(0);
+            exportMayRun.await();
+            // rows read before the changes below were made
+            consumer.accept(customer(2L, "John Smith", "js@example.com"));
+            consumer.accept(customer(4L, "Johnny Appleseed", "apple@example.com"));
+            exported.countDown();
+            return null;
+        }).when(customerService).exportCustomers(any());
+        ReflectionTestUtils.setField(searchService, "customerService", customerService);
+
+        searchService.build();
+        searchService.index(customer(2L, "Jack Smith", "js@example.com"));
+        searchService.remove(4L);
+        exportMayRun.countDown();
+        assertTrue(exported.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(3L), ids(searchService.search("john", 10)));
+        assertEquals(List.of(2L), ids(searchService.search("jack", 10)));
+    }
+
+    private static List<Long> ids(List<CustomerSearchHit> hits) {
+        return hits.stream().map(CustomerSearchHit::getId).toList();
+    }
+
+    private static Customer customer(Long id, String name, String email) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName(name);
+        customer.setEmail(email);
+        return customer;
+    }
+}
@@ -0,0 +1,219 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.CacheConfig;
+import com.onlinebookstore.entity.Customer;
+import com.onlinebookstore.model.BulkUpsertResult;
+import com.onlinebookstore.model.CustomerPage;
+import com.onlinebookstore.model.InvalidEntry;
+import com.onlinebookstore.repository.CustomerRepository;
+import com.onlinebookstore.service.CustomerSearchService;
+import com.onlinebookstore.utility.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customers;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.customer.bulk.chunk-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureCache(cacheProvider = CacheType.SIMPLE)
+@Import({CustomerServiceImpl.class, CacheConfig.class})
+@ImportAutoConfiguration({CacheAutoConfiguration.class, JdbcTemplateAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerServiceImplTest {
+
+    @Autowired
+    private CustomerServiceImpl customerService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @MockitoBean
+    private CustomerSearchService customerSearchService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void keysetPagesWalkTheTableInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(customerRepository.save(customer(null, "Customer " + i, "c" + i + "@example.com")).getId());
+        }
+
+        CustomerPage first = customerService.getCustomersAfter(null, 2);
+        assertEquals(ids.subList(0, 2), idsOf(first.getItems()));
+        assertEquals(ids.get(1), first.getNextCursor());
+
+        CustomerPage second = customerService.getCustomersAfter(first.getNextCursor(), 2);
+        assertEquals(ids.subList(2, 4), idsOf(second.getItems()));
+
+        CustomerPage last = customerService.getCustomersAfter(second.getNextCursor(), 2);
+        assertEquals(ids.subList(4, 5), idsOf(last.getItems()));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void fullLastPageIsFollowedByAnEmptyOne() {
+        customerRepository.save(customer(null, "Ann", "ann@example.com"));
+        Long last = customerRepository.save(customer(null, "Bob", "bob@example.com")).getId();
+
+        CustomerPage page = customerService.getCustomersAfter(null, 2);
+        assertEquals(last, page.getNextCursor());
+
+        CustomerPage empty = customerService.getCustomersAfter(page.getNextCursor(), 2);
+        assertTrue(empty.getItems().isEmpty());
+        assertNull(empty.getNextCursor());
+    }
+
+    @Test
+    void deletedRowsDoNotShiftLaterPages() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(customerRepository.save(customer(null, "Customer " + i, "c" + i + "@example.com")).getId());
+        }
+        CustomerPage first = customerService.getCustomersAfter(null, 2);
+
+        customerRepository.deleteById(ids.get(0));
+
+        assertEquals(ids.subList(2, 4), idsOf(customerService.getCustomersAfter(first.getNextCursor(), 2).getItems()));
+    }
+
+    @Test
+    void exportStreamsEveryCustomerInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(customerRepository.save(customer(null, "Customer " + i, "c" + i + "@example.com")).getId());
+        }
+        List<Long> exported = new ArrayList<>();
+
+        customerService.exportCustomers(customer -> exported.add(customer.getId()));
+
+        assertEquals(ids, exported);
+    }
+
+    @Test
+    void upsertInsertsWithoutIdAndUpdatesInOneStatement() {
+        Customer inserted = customerService.addCustomerOrUpdateCustomer(customer(null, "Ann", "ann@example.com"));
+        assertNotNull(inserted.getId());
+
+        assertEquals("Ann", customerService.getCustomerById(inserted.getId()).getName());
+        Customer updated = customerService.addCustomerOrUpdateCustomer(customer(inserted.getId(), "Ann B", "annb@example.com"));
+
+        assertNotNull(updated.getUpdateDate());
+        Customer stored = customerRepository.findById(inserted.getId()).orElseThrow();
+        assertEquals("Ann B", stored.getName());
+        assertEquals("annb@example.com", stored.getEmail());
+        assertEquals(inserted.getCreateDate().withNano(0), stored.getCreateDate().withNano(0));
+        // the cached copy was evicted by the update
+        assertEquals("Ann B", customerService.getCustomerById(inserted.getId()).getName());
+    }
+
+    @Test
+    void upsertOfAMissingIdReturnsNull() {
+        assertNull(customerService.addCustomerOrUpdateCustomer(customer(999_999L, "Nobody", "nobody@example.com")));
+        assertEquals(0, customerRepository.count());
+    }
+
+    @Test
+    void bulkUpsertMixesInsertsUpdatesAndMissingIdsAcrossChunks() {
+        Long existing = customerRepository.save(customer(null, "Ann", "ann@example.com")).getId();
+        customerService.getCustomerById(existing);
+        List<Customer> batch = List.of(
+                customer(null, "Bob", "bob@example.com"),
+                customer(existing, "Ann B", "annb@example.com"),
+                customer(999_999L, "Nobody", "nobody@example.com"),
+                customer(null, "Carl", "carl@example.com"),
+                customer(null, "Dora", "dora@example.com"));
+
+        BulkUpsertResult result = customerService.upsertCustomers(batch);
+
+        assertEquals(3, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(999_999L), result.getNotFoundIds());
+        assertEquals(4, customerRepository.count());
+        for (Customer customer : List.of(batch.get(0), batch.get(3), batch.get(4))) {
+            assertNotNull(customer.getId());
+            assertEquals(customer.getName(), customerRepository.findById(customer.getId()).orElseThrow().getName());
+        }
+        assertEquals("Ann B", customerService.getCustomerById(existing).getName());
+    }
+
+    @Test
+    void updateEvictsTheCachedCustomerOnlyAfterCommit() {
+        Long id = customerRepository.save(customer(null, "Ann", "ann@example.com")).getId();
+        customerService.getCustomerById(id);
+        Cache cache = cacheManager.getCache(Constants.CUSTOMER_CACHE);
+        assertNotNull(cache.get(id));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            customerService.addCustomerOrUpdateCustomer(customer(id, "Ann B", "ann@example.com"));
+            // a read racing the commit would see the old row, so the old entry has to stay until then
+            assertNotNull(cache.get(id));
+        });
+
+        assertNull(cache.get(id));
+        assertEquals("Ann B", customerService.getCustomerById(id).getName());
+    }
+
+    @Test
+    void bulkUpsertReportsInvalidEntriesAndWritesTheRest() {
+        List<Customer> batch = new ArrayList<>();
+        batch.add(customer(null, "Bob", "bob@example.com"));
+        batch.add(customer(null, "", "not-an-email"));
+        batch.add(null);
+        batch.add(customer(null, "Carl", "carl@example.com"));
+
+        BulkUpsertResult result = customerService.upsertCustomers(batch);
+
+        assertEquals(2, result.getInserted());
+        assertEquals(List.of(
+                new InvalidEntry(1, List.of("Email should be valid", "Name cannot be empty")),
+                new InvalidEntry(2, List.of("Customer cannot be null"))), result.getInvalid());
+        assertEquals(2, customerRepository.count());
+    }
+
+    private static List<Long> idsOf(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+
+    private static Customer customer(Long id, String name, String email) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName(name);
+        customer.setEmail(email);
+        return customer;
+    }
+}
@@ -0,0 +1,128 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.UserRegister;
+import com.onlinebookstore.model.LoginResponse;
+import com.onlinebookstore.model.TokenClaims;
+import com.onlinebookstore.web.TokenProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HmacTokenServiceImplTest {
+
+    private static final String KEY_1 = key('1');
+    private static final String KEY_2 = key('2');
+
+    @Test
+    void issuedTokenVerifiesToItsClaims() {
+        HmacTokenServiceImpl tokenService = tokenService(Map.of("k1", KEY_1), "k1", Duration.ofHours(1));
+
+        LoginResponse login = tokenService.issue(user(42L, "ann@example.com"));
+        TokenClaims claims = tokenService.verify(login.getToken());
+
+        assertNotNull(claims);
+        assertEquals(42L, claims.getUserId());
+        assertEquals("ann@example.com", claims.getEmail());
+        assertEquals(login.getExpiresAt(), claims.getExpiresAt());
+        assertEquals(Duration.ofHours(1), Duration.between(claims.getIssuedAt(), claims.getExpiresAt()));
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        HmacTokenServiceImpl tokenService = tokenService(Map.of("k1", KEY_1), "k1", Duration.ofHours(1));
+        String token = tokenService.issue(user(42L, "ann@example.com")).getToken();
+        String[] parts = token.split("\\.");
+
+        byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+        payload[7] ^= 1;
+        String otherUser = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + "." + parts[2];
+        assertNull(tokenService.verify(otherUser));
+
+        char last = parts[2].charAt(parts[2].length() - 2);
+        String badSignature = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+        assertNull(tokenService.verify(badSignature));
+
+        assertNull(tokenService.verify("k9." + parts[1] + "." + parts[2]));
+        assertNull(tokenService.verify(parts[0] + "." + parts[1]));
+        assertNull(tokenService.verify("garbage"));
+        assertNull(tokenService.verify(parts[0] + ".!!!." + parts[2]));
+    }
+
+    @Test
+    void tokenFromAnotherKeyIsRejected() {
+        HmacTokenServiceImpl signer = tokenService(Map.of("k1", KEY_2), "k1", Duration.ofHours(1));
+        HmacTokenServiceImpl verifier = tokenService(Map.of("k1", KEY_1), "k1", Duration.ofHours(1));
+
+        assertNull(verifier.verify(signer.issue(user(1L, "a@example.com")).getToken()));
+    }
+
+    @Test
+    void tokensOfTheRetiringKeyStillVerifyAfterRotation() {
+        HmacTokenServiceImpl before = tokenService(Map.of("k1", KEY_1), "k1", Duration.ofHours(1));
+        HmacTokenServiceImpl after = tokenService(Map.of("k1", KEY_1, "k2", KEY_2), "k2", Duration.ofHours(1));
+
+        String old = before.issue(user(1L, "a@example.com")).getToken();
+        String current = after.issue(user(1L, "a@example.com")).getToken();
+
+        assertNotNull(after.verify(old));
+        assertEquals("k2", current.substring(0, current.indexOf('.')));
+        assertNull(before.verify(current));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        HmacTokenServiceImpl tokenService = tokenService(Map.of("k1", KEY_1), "k1", Duration.ZERO);
+
+        assertNull(tokenService.verify(tokenService.issue(user(1L, "a@example.com")).getToken()));
+    }
+
+    @Test
+    void revokedTokenIsRejectedButOthersAreNot() {
+        HmacTokenServiceImpl tokenService = tokenService(Map.of("k1", KEY_1), "k1", Duration.ofHours(1));
+        String first = tokenService.issue(user(1L, "a@example.com")).getToken();
+        String second = tokenService.issue(user(1L, "a@example.com")).getToken();
+
+        tokenService.revoke(tokenService.verify(first));
+
+        assertNull(tokenService.verify(first));
+        assertNotNull(tokenService.verify(second));
+    }
+
+    @Test
+    void shortOrUnknownActiveKeysFailStartup() {
+        String shortKey = Base64.getEncoder().encodeToString(new byte[16]);
+        assertThrows(IllegalStateException.class, () -> tokenService(Map.of("k1", shortKey), "k1", Duration.ofHours(1)));
+        assertThrows(IllegalStateException.class, () -> tokenService(Map.of("k1", KEY_1), "k2", Duration.ofHours(1)));
+    }
+
+    private static HmacTokenServiceImpl tokenService(Map<String, String> keys, String activeKid, Duration ttl) {
+        TokenProperties properties = new TokenProperties();
+        properties.getKeys().putAll(keys);
+        properties.setActiveKid(activeKid);
+        properties.setTtl(ttl);
+        HmacTokenServiceImpl tokenService = new HmacTokenServiceImpl();
+        ReflectionTestUtils.setField(tokenService, "properties", properties);
+        tokenService.init();
+        return tokenService;
+    }
+
+    private static UserRegister user(Long id, String email) {
+        UserRegister user = new UserRegister();
+        user.setId(id);
+        user.setEmail(email);
+        return user;
+    }
+
+    private static String key(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,157 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.BlobReference;
+import com.onlinebookstore.model.BlobDescriptor;
+import com.onlinebookstore.model.StagedBlob;
+import com.onlinebookstore.repository.BlobReferenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:blobs;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.storage.reclaim-grace=PT0S"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LocalBlobStorageServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LocalBlobStorageServiceImplTest {
+
+    @TempDir
+    static Path storage;
+
+    @DynamicPropertySource
+    static void storageLocation(DynamicPropertyRegistry registry) {
+        registry.add("app.storage.location", storage::toString);
+    }
+
+    @Autowired
+    private LocalBlobStorageServiceImpl blobStorageService;
+    @Autowired
+    private BlobReferenceRepository blobReferenceRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        blobReferenceRepository.deleteAll();
+    }
+
+    @Test
+    void identicalUploadsShareOneBlob() throws Exception {
+        byte[] content = "same bytes".getBytes(StandardCharsets.UTF_8);
+        StagedBlob first = stage(content);
+        StagedBlob second = stage(content);
+        assertEquals(first.getChecksum(), second.getChecksum());
+
+        BlobDescriptor placed = commit(first);
+        BlobDescriptor reused = commit(second);
+        blobStorageService.discard(second);
+
+        assertEquals(placed.getStorageKey(), reused.getStorageKey());
+        assertEquals(2, reference(placed.getStorageKey()).getRefCount());
+        assertFalse(Files.exists(second.getTempFile()));
+        assertArrayEquals(content, Files.readAllBytes(blobStorageService.resolve(placed.getStorageKey())));
+    }
+
+    @Test
+    void blobIsReclaimedOnlyOnceTheLastReferenceIsReleased() throws Exception {
+        byte[] content = "shared then released".getBytes(StandardCharsets.UTF_8);
+        String key = commit(stage(content)).getStorageKey();
+        StagedBlob again = stage(content);
+        commit(again);
+        blobStorageService.discard(again);
+
+        release(key);
+        Thread.sleep(5);
+        blobStorageService.sweep();
+        assertTrue(blobStorageService.exists(key));
+        assertEquals(1, reference(key).getRefCount());
+
+        release(key);
+        Thread.sleep(5);
+        blobStorageService.sweep();
+        assertFalse(blobStorageService.exists(key));
+        assertNull(blobReferenceRepository.findById(key).orElse(null));
+    }
+
+    @Test
+    void rollbackTakesThePlacedBlobBack() throws Exception {
+        byte[] content = "rolled back".getBytes(StandardCharsets.UTF_8);
+        StagedBlob staged = stage(content);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            try {
+                blobStorageService.commit(staged);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            throw new IllegalStateException("insert failed");
+        }));
+
+        assertFalse(blobStorageService.exists(staged.getChecksum()));
+        assertNull(blobReferenceRepository.findById(staged.getChecksum()).orElse(null));
+        assertArrayEquals(content, Files.readAllBytes(staged.getTempFile()));
+
+        // the restored staging file can be committed again
+        BlobDescriptor retried = commit(staged);
+        assertTrue(blobStorageService.exists(retried.getStorageKey()));
+    }
+
+    private StagedBlob stage(byte[] content) throws IOException {
+        return blobStorageService.stage(new ByteArrayInputStream(content), "application/octet-stream");
+    }
+
+    private BlobDescriptor commit(StagedBlob staged) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return blobStorageService.commit(staged);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void release(String key) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                blobStorageService.release(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private BlobReference reference(String key) {
+        return blobReferenceRepository.findById(key).orElseThrow();
+    }
+}
@@ -0,0 +1,261 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.OutboxEvent;
+import com.onlinebookstore.repository.OutboxEventRepository;
+import com.onlinebookstore.service.OutboxHandler;
+import com.onlinebookstore.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.outbox.max-attempts=3",
+        "app.outbox.backoff-base-ms=1",
+        "app.outbox.backoff-max-ms=2",
+        "app.outbox.lease-ms=60000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OutboxServiceImpl.class, OutboxServiceImplTest.Handlers.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxServiceImplTest {
+
+    private static final String FLAKY = "FLAKY";
+    private static final String BROKEN = "BROKEN";
+
+    @TempDir
+    static Path staging;
+    @TempDir
+    static Path elsewhere;
+
+    @DynamicPropertySource
+    static void stagingLocation(DynamicPropertyRegistry registry) {
+        registry.add("app.outbox.staging-location", staging::toString);
+    }
+
+    @Autowired
+    private OutboxServiceImpl outboxService;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RecordingHandler flaky;
+    @Autowired
+    private RecordingHandler broken;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        flaky.reset(2);
+        broken.reset(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void failedEventIsRetriedUntilItSucceeds() throws Exception {
+        Long id = enqueue(FLAKY);
+
+        OutboxEvent event = drain(id);
+
+        assertEquals(OutboxEvent.Status.DONE, event.getStatus());
+        assertEquals(2, event.getAttempts());
+        assertNull(event.getLastError());
+        assertEquals(3, flaky.prepared.get());
+        assertEquals(1, flaky.applied.get());
+        assertEquals(1, flaky.completed.get());
+        assertEquals(0, flaky.failed.get());
+    }
+
+    @Test
+    void eventIsParkedAfterMaxAttemptsAndTheHandlerCleansUp() throws Exception {
+        Long id = enqueue(BROKEN);
+
+        OutboxEvent event = drain(id);
+
+        assertEquals(OutboxEvent.Status.FAILED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertTrue(event.getLastError().startsWith("IllegalStateException: attempt"));
+        assertEquals(0, broken.applied.get());
+        assertEquals(0, broken.completed.get());
+        assertEquals(1, broken.failed.get());
+    }
+
+    @Test
+    void unknownEventTypeIsParked() throws Exception {
+        Long id = enqueue("NOBODY");
+
+        OutboxEvent event = drain(id);
+
+        assertEquals(OutboxEvent.Status.FAILED, event.getStatus());
+        assertEquals("No handler for event type NOBODY", event.getLastError());
+    }
+
+    @Test
+    void unknownEventTypeReleasesItsStagedFiles() throws Exception {
+        Path directory = Files.createDirectory(staging.resolve("upload"));
+        Path stagedFile = Files.writeString(directory.resolve("a.txt"), "a");
+        Path foreignFile = Files.writeString(elsewhere.resolve("b.txt"), "b");
+        Long id = enqueue("NOBODY", List.of(Map.of("path", stagedFile.toString()), Map.of("path", foreignFile.toString())));
+
+        assertEquals(OutboxEvent.Status.FAILED, drain(id).getStatus());
+
+        assertFalse(Files.exists(stagedFile));
+        assertFalse(Files.exists(directory));
+        assertTrue(Files.exists(staging));
+        assertTrue(Files.exists(foreignFile));
+    }
+
+    @Test
+    void leasedEventIsClaimedAgainOnlyOnceTheLeaseRunsOut() throws Exception {
+        flaky.reset(0);
+        Long id = enqueue(FLAKY);
+        setState(id, OutboxEvent.Status.PROCESSING, LocalDateTime.now().plusMinutes(1));
+
+        outboxService.poll();
+        Thread.sleep(200);
+        assertEquals(0, flaky.prepared.get());
+        assertEquals(OutboxEvent.Status.PROCESSING, outboxEventRepository.findById(id).orElseThrow().getStatus());
+
+        setState(id, OutboxEvent.Status.PROCESSING, LocalDateTime.now().minusSeconds(1));
+        assertEquals(OutboxEvent.Status.DONE, drain(id).getStatus());
+        assertEquals(1, flaky.applied.get());
+    }
+
+    @Test
+    void staleWorkerCannotCompleteAReclaimedEvent() throws Exception {
+        flaky.reset(0);
+        Long id = enqueue(FLAKY);
+        OutboxEvent stale = outboxEventRepository.findById(id).orElseThrow();
+        // another worker claims the event in the meantime
+        setState(id, OutboxEvent.Status.PROCESSING, LocalDateTime.now().plusMinutes(1));
+
+        stale.setStatus(OutboxEvent.Status.DONE);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.save(stale));
+        } catch (RuntimeException expected) {
+            // optimistic lock failure
+        }
+        assertEquals(OutboxEvent.Status.PROCESSING, outboxEventRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    private Long enqueue(String eventType) {
+        return enqueue(eventType, Map.of("key", "value"));
+    }
+
+    private Long enqueue(String eventType, Object payload) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> outboxService.enqueue(eventType, 1L, payload));
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType().equals(eventType))
+                .mapToLong(OutboxEvent::getId).max().orElseThrow();
+    }
+
+    private void setState(Long id, OutboxEvent.Status status, LocalDateTime availableAt) {
+        OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+        event.setStatus(status);
+        event.setAvailableAt(availableAt);
+        outboxEventRepository.save(event);
+    }
+
+    /** Polls until the event is done or parked. */
+    private OutboxEvent drain(Long id) throws InterruptedException {
+        OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+        for (int i = 0; i < 200 && event.getStatus() != OutboxEvent.Status.DONE && event.getStatus() != OutboxEvent.Status.FAILED; i++) {
+            outboxService.poll();
+            Thread.sleep(20);
+            event = outboxEventRepository.findById(id).orElseThrow();
+        }
+        // failed()/completed() run right after the status commit
+        Thread.sleep(50);
+        return event;
+    }
+
+    @TestConfiguration
+    static class Handlers {
+        @Bean
+        RecordingHandler flaky() {
+            return new RecordingHandler(FLAKY);
+        }
+
+        @Bean
+        RecordingHandler broken() {
+            return new RecordingHandler(BROKEN);
+        }
+    }
+
+    /** Fails its first {@code failures} attempts, then succeeds. */
+    static class RecordingHandler implements OutboxHandler {
+        private final String eventType;
+        private final AtomicInteger prepared = new AtomicInteger();
+        private final AtomicInteger applied = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        RecordingHandler(String eventType) {
+            this.eventType = eventType;
+        }
+
+        void reset(int failures) {
+            prepared.set(0);
+            applied.set(0);
+            completed.set(0);
+            failed.set(0);
+            this.failures.set(failures);
+        }
+
+        @Override
+        public String getEventType() {
+            return eventType;
+        }
+
+        @Override
+        public Prepared prepare(OutboxEvent event) {
+            int attempt = prepared.incrementAndGet();
+            if (attempt <= failures.get()) {
+                throw new IllegalStateException("attempt " + attempt);
+            }
+            return applied::incrementAndGet;
+        }
+
+        @Override
+        public void completed(OutboxEvent event) {
+            completed.incrementAndGet();
+        }
+
+        @Override
+        public void failed(OutboxEvent event) {
+            failed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.onlinebookstore.serviceImpl;
+
+import com.onlinebookstore.entity.UserRegister;
+import com.onlinebookstore.model.LoginModel;
+import com.onlinebookstore.model.UserRegData;
+import com.onlinebookstore.repository.UserRepository;
+import com.onlinebookstore.service.OutboxService;
+import com.onlinebookstore.service.PasswordHashingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:users;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.password.bcrypt-strength=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserRegisterServiceImpl.class, BcryptPasswordHashingServiceImpl.class})
+@ImportAutoConfiguration(TaskExecutionAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRegisterServiceImplTest {
+
+    @Autowired
+    private UserRegisterServiceImpl userRegisterService;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    private UserRepository userRepository;
+    @MockitoBean
+    private OutboxService outboxService;
+
+    @TempDir
+    static Path staging;
+
+    @DynamicPropertySource
+    static void stagingLocation(DynamicPropertyRegistry registry) {
+        registry.add("app.outbox.staging-location", staging::toString);
+    }
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void legacyPasswordLogsInAndIsRehashed() throws Exception {
+        String legacy = Base64.getEncoder().encodeToString("secret".getBytes(StandardCharsets.UTF_8));
+        UserRegister user = save("legacy@example.com", legacy);
+
+        assertNotNull(userRegisterService.createLoginUser(login("legacy@example.com", "secret")).join());
+
+        String stored = legacy;
+        for (int i = 0; i < 100 && stored.equals(legacy); i++) {
+            Thread.sleep(50);
+            stored = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        }
+        assertFalse(passwordHashingService.isLegacy(stored));
+        assertTrue(passwordHashingService.matches("secret", stored).join());
+        assertNotNull(userRegisterService.createLoginUser(login("legacy@example.com", "secret")).join());
+    }
+
+    @Test
+    void wrongLegacyPasswordIsRejectedAndNotRehashed() throws Exception {
+        String legacy = Base64.getEncoder().encodeToString("secret".getBytes(StandardCharsets.UTF_8));
+        UserRegister user = save("legacy2@example.com", legacy);
+
+        assertNull(userRegisterService.createLoginUser(login("legacy2@example.com", "wrong")).join());
+        Thread.sleep(200);
+        assertEquals(legacy, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void bcryptPasswordIsChecked() {
+        save("bcrypt@example.com", passwordHashingService.hash("secret").join());
+
+        assertNotNull(userRegisterService.createLoginUser(login("bcrypt@example.com", "secret")).join());
+        assertNull(userRegisterService.createLoginUser(login("bcrypt@example.com", "wrong")).join());
+    }
+
+    @Test
+    void unknownEmailIsRejected() {
+        assertNull(userRegisterService.createLoginUser(login("nobody@example.com", "secret")).join());
+    }
+
+    @Test
+    void secondRegistrationWithTheSameEmailFails() {
+        UserRegData userRegData = new UserRegData();
+        userRegData.setEmail("twice@example.com");
+        userRegData.setPassword("secret");
+        UserRegister user = userRegisterService.createUserRegService(userRegData).join();
+        assertNotNull(user.getId());
+        assertTrue(passwordHashingService.matches("secret", user.getPassword()).join());
+
+        CompletionException e = assertThrows(CompletionException.class, () -> userRegisterService.createUserRegService(userRegData).join());
+        assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+    }
+
+    @Test
+    void registrationWithFilesStagesThemAndEnqueuesTheEvent() throws Exception {
+        UserRegData userRegData = new UserRegData();
+        userRegData.setEmail("files@example.com");
+        userRegData.setPassword("secret");
+        MockMultipartFile file = new MockMultipartFile("files", "a.txt", "text/plain", "hello".getBytes(StandardCharsets.UTF_8));
+
+        UserRegister user = userRegisterService.createUserRegServiceWithFiles(userRegData, new MockMultipartFile[]{file}).join();
+
+        verify(outboxService).enqueue(eq(UserAttachmentsOutboxHandler.EVENT_TYPE), eq(user.getId()), any());
+        assertEquals(1, stagedFiles());
+    }
+
+    @Test
+    void failedRegistrationWithFilesRemovesTheStagedFiles() throws Exception {
+        save("taken@example.com", "x");
+        UserRegData userRegData = new UserRegData();
+        userRegData.setEmail("taken@example.com");
+        userRegData.setPassword("secret");
+        MockMultipartFile file = new MockMultipartFile("files", "a.txt", "text/plain", "hello".getBytes(StandardCharsets.UTF_8));
+        long before = stagedFiles();
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> userRegisterService.createUserRegServiceWithFiles(userRegData, new MockMultipartFile[]{file}).join());
+
+        assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+        assertEquals(before, stagedFiles());
+    }
+
+    private static long stagedFiles() throws Exception {
+        try (Stream<Path> files = java.nio.file.Files.walk(staging)) {
+            return files.filter(java.nio.file.Files::isRegularFile).count();
+        }
+    }
+
+    private UserRegister save(String email, String password) {
+        UserRegister user = new UserRegister();
+        user.setEmail(email);
+        user.setPassword(password);
+        return userRepository.save(user);
+    }
+
+    private static LoginModel login(String email, String password) {
+        LoginModel loginModel = new LoginModel();
+        loginModel.setEmail(email);
+        loginModel.setPassword(password);
+        return loginModel;
+    }
+}
@@ -0,0 +1,142 @@
+package com.onlinebookstore.utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchLoaderTest {
+
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+    private BatchLoader<Integer, String> loader;
+
+    @AfterEach
+    void tearDown() {
+        loader.close();
+    }
+
+    @Test
+    void keysWithinTheWindowShareOneBatch() {
+        loader = loader(this::values, 100, TimeUnit.MILLISECONDS.toNanos(50));
+
+        CompletableFuture<String> one = loader.load(1);
+        CompletableFuture<String> two = loader.load(2);
+        CompletableFuture<String> three = loader.load(3);
+
+        assertEquals("v1", one.join());
+        assertEquals("v2", two.join());
+        assertEquals("v3", three.join());
+        assertEquals(List.of(List.of(1, 2, 3)), batches);
+    }
+
+    @Test
+    void concurrentLoadsOfAKeyShareOneFuture() {
+        loader = loader(this::values, 100, TimeUnit.MILLISECONDS.toNanos(50));
+
+        CompletableFuture<String> first = loader.load(7);
+        CompletableFuture<String> second = loader.load(7);
+        Map<Integer, String> all = loader.loadAll(List.of(7, 8, 7)).join();
+
+        assertSame(first, second);
+        assertEquals("v7", first.join());
+        assertEquals(Map.of(7, "v7", 8, "v8"), all);
+        assertEquals(List.of(List.of(7, 8)), batches);
+    }
+
+    @Test
+    void fullBatchIsDispatchedWithoutWaitingForTheWindow() {
+        loader = loader(this::values, 2, TimeUnit.SECONDS.toNanos(30));
+
+        CompletableFuture<String> one = loader.load(1);
+        CompletableFuture<String> two = loader.load(2);
+
+        assertEquals("v1", one.orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals("v2", two.join());
+        assertEquals(List.of(List.of(1, 2)), batches);
+    }
+
+    @Test
+    void missingKeysResolveToNullAndAreLeftOutOfLoadAll() {
+        loader = loader(keys -> Map.of(1, "v1"), 100, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertNull(loader.load(2).join());
+        assertEquals(Map.of(1, "v1"), loader.loadAll(List.of(1, 3)).join());
+    }
+
+    @Test
+    void failingBatchFailsItsKeysAndIsNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        loader = loader(keys -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("database down");
+            }
+            return values(keys);
+        }, 100, TimeUnit.MILLISECONDS.toNanos(10));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> loader.load(1).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals("v1", loader.load(1).join());
+    }
+
+    @Test
+    void closeFlushesKeysStillWaitingForTheWindow() {
+        loader = loader(this::values, 100, TimeUnit.SECONDS.toNanos(30));
+        CompletableFuture<String> waiting = loader.load(1);
+
+        loader.close();
+
+        assertEquals("v1", waiting.orTimeout(5, TimeUnit.SECONDS).join());
+        CompletionException e = assertThrows(CompletionException.class, () -> loader.load(2).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void batchesBeyondTheQueueAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        loader = new BatchLoader<>("test", keys -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return values(keys);
+        }, 1, TimeUnit.SECONDS.toNanos(30), 1, 1);
+
+        CompletableFuture<String> running = loader.load(1);
+        CompletableFuture<String> queued = loader.load(2);
+        CompletableFuture<String> rejected = loader.load(3);
+
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        release.countDown();
+        assertEquals("v1", running.join());
+        assertEquals("v2", queued.join());
+    }
+
+    private BatchLoader<Integer, String> loader(Function<List<Integer>, Map<Integer, String>> batchFunction, int maxBatchSize, long windowNanos) {
+        return new BatchLoader<>("test", batchFunction, maxBatchSize, windowNanos, 2, 16);
+    }
+
+    private Map<Integer, String> values(List<Integer> keys) {
+        batches.add(List.copyOf(keys));
+        Map<Integer, String> values = new HashMap<>();
+        keys.forEach(key -> values.put(key, "v" + key));
+        return values;
+    }
+}
@@ -0,0 +1,88 @@
+package com.onlinebookstore.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlinebookstore.entity.UserRegister;
+import com.onlinebookstore.model.TokenClaims;
+import com.onlinebookstore.serviceImpl.HmacTokenServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TokenAuthenticationFilterTest {
+
+    private HmacTokenServiceImpl tokenService;
+    private TokenAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new HmacTokenServiceImpl();
+        ReflectionTestUtils.setField(tokenService, "properties", new TokenProperties());
+        tokenService.init();
+        filter = new TokenAuthenticationFilter(tokenService, new ObjectMapper(), "/me", "/logout");
+    }
+
+    @Test
+    void validTokenExposesItsClaims() throws Exception {
+        UserRegister user = new UserRegister();
+        user.setId(7L);
+        user.setEmail("ann@example.com");
+        MockHttpServletRequest request = request("/me", tokenService.issue(user).getToken());
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(7L, ((TokenClaims) request.getAttribute(TokenAuthenticationFilter.CLAIMS_ATTRIBUTE)).getUserId());
+    }
+
+    @Test
+    void invalidTokenIsRejectedOnProtectedPaths() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/logout", "ephemeral.bad.token"), response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void invalidTokenIsIgnoredOnPublicPaths() throws Exception {
+        MockHttpServletRequest request = request("/login", "ephemeral.bad.token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertNull(request.getAttribute(TokenAuthenticationFilter.CLAIMS_ATTRIBUTE));
+    }
+
+    @Test
+    void requestWithoutTokenPassesThrough() throws Exception {
+        MockHttpServletRequest request = request("/me", null);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(request.getAttribute(TokenAuthenticationFilter.CLAIMS_ATTRIBUTE));
+    }
+
+    private static MockHttpServletRequest request(String path, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,68 @@
+package com.onlinebookstore.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void newBucketAllowsAFullBurstThenAsksToWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(3, SECOND);
+        long now = 1_000 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(SECOND, bucket.tryAcquire(now));
+        assertEquals(SECOND / 4, bucket.tryAcquire(now + 3 * SECOND / 4));
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2, SECOND);
+        long now = 0;
+        bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+
+        assertEquals(0, bucket.tryAcquire(now + SECOND));
+        assertTrue(bucket.tryAcquire(now + SECOND) > 0);
+        assertEquals(0, bucket.tryAcquire(now + 2 * SECOND));
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        TokenBucket bucket = new TokenBucket(2, SECOND);
+        bucket.tryAcquire(0);
+
+        long later = 100 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(SECOND, bucket.tryAcquire(later));
+    }
+
+    @Test
+    void rejectedAttemptsDoNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(1, SECOND);
+        assertEquals(0, bucket.tryAcquire(0));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(SECOND, bucket.tryAcquire(0));
+        }
+        assertEquals(0, bucket.tryAcquire(SECOND));
+    }
+
+    @Test
+    void limiterKeepsABucketPerKey() {
+        RateLimiter limiter = new RateLimiter(2, 0.001, 100);
+
+        assertEquals(0, limiter.tryAcquire("ann@example.com|10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("ann@example.com|10.0.0.1"));
+        assertTrue(limiter.tryAcquire("ann@example.com|10.0.0.1") > 0);
+        assertEquals(0, limiter.tryAcquire("ann@example.com|10.0.0.2"));
+    }
+}